@@ -26,7 +26,10 @@ public final class Utils {
 	 * @return The associated int, or -1 if the character is invalid
 	 */
 	public static int base16ToInt(char c) {
-		return BASE_16.indexOf(String.valueOf(c).toLowerCase());
+		if (c >= '0' && c <= '9') return c - '0';
+		if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+		if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+		return -1;
 	}
 
 	/**
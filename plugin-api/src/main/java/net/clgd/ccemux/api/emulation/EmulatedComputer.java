@@ -2,6 +2,8 @@ package net.clgd.ccemux.api.emulation;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
 import java.util.function.Supplier;
 
 import javax.annotation.Nonnull;
@@ -9,10 +11,12 @@ import javax.annotation.Nullable;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import dan200.computercraft.api.filesystem.WritableMount;
+import dan200.computercraft.api.peripheral.IPeripheral;
 import dan200.computercraft.core.ComputerContext;
 import dan200.computercraft.core.apis.transfer.TransferredFiles;
 import dan200.computercraft.core.computer.Computer;
 import dan200.computercraft.core.computer.ComputerEnvironment;
+import dan200.computercraft.core.computer.ComputerSide;
 
 public abstract class EmulatedComputer extends Computer {
 	/**
@@ -124,6 +128,20 @@ public abstract class EmulatedComputer extends Computer {
 	 */
 	public abstract boolean removeListener(@Nonnull Listener l);
 
+	/**
+	 * Attach a peripheral to one side of this computer, replacing any peripheral already there.
+	 * <p>
+	 * Peripherals which implement {@link Listener} are advanced every time this computer is ticked. Peripherals
+	 * attached through {@link #getEnvironment()} are advanced too, but attaching them here means the computer notices
+	 * them straight away.
+	 *
+	 * @param side       The side to attach the peripheral to.
+	 * @param peripheral The peripheral to attach, or {@code null} to detach the current one.
+	 */
+	public void setPeripheral(@Nonnull ComputerSide side, @Nullable IPeripheral peripheral) {
+		getEnvironment().setPeripheral(side, peripheral);
+	}
+
 	/**
 	 * Transfer a list of files onto the computer, queuing a {@link TransferredFiles#EVENT {@code file_transfer}} event.
 	 * <p>
@@ -153,6 +171,51 @@ public abstract class EmulatedComputer extends Computer {
 	@Nonnull
 	public abstract ListenableFuture<File> screenshot();
 
+	/**
+	 * Start recording this computer's terminal to a file, which can later be exported as an animation. If this
+	 * computer is already being recorded, this does nothing.
+	 *
+	 * @return The file being recorded to.
+	 * @throws IOException If the recording could not be created.
+	 */
+	@Nonnull
+	public abstract File startRecording() throws IOException;
+
+	/**
+	 * Stop recording this computer's terminal.
+	 *
+	 * @return The finished recording, or {@code null} if this computer was not being recorded.
+	 */
+	@Nullable
+	public abstract File stopRecording();
+
+	/**
+	 * Whether this computer's terminal is being recorded.
+	 *
+	 * @return Whether a recording is in progress.
+	 */
+	public abstract boolean isRecording();
+
+	/**
+	 * Ensure this computer is ticked, if the emulator has stopped ticking it while idle.
+	 * <p>
+	 * Queuing an event or turning the computer on wakes it automatically. Renderers and peripherals should call this
+	 * when they have other work to do on the computer's next tick, such as handling a held key combination.
+	 */
+	public void wake() {
+	}
+
+	/**
+	 * Get the metrics ComputerCraft has recorded for this computer, such as the time spent running Lua, server tasks,
+	 * file operations and HTTP requests.
+	 *
+	 * @return A snapshot of each metric which has been observed, keyed by name.
+	 */
+	@Nonnull
+	public Map<String, MetricSnapshot> getMetrics() {
+		return Collections.emptyMap();
+	}
+
 	/**
 	 * Get the terminal scale for renderers to use.
 	 *
@@ -2,16 +2,24 @@ package net.clgd.ccemux.api.emulation;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.annotation.Nonnull;
 
 import dan200.computercraft.core.terminal.Terminal;
+import dan200.computercraft.core.terminal.TextBuffer;
+import net.clgd.ccemux.api.Utils;
 
 /**
  * A wrapper for {@link Terminal} that allows {@link Listener listeners} to be
  * added
+ * <p>
+ * This also keeps a packed copy of the terminal's contents, which renderers can read without parsing colours or
+ * allocating. Each cell is a single {@code int}, holding the character in its low 16 bits, then the text colour and
+ * the background colour as palette indices (see {@link #getCellChar(int)} and friends). Every row also has a version,
+ * so renderers can find which rows have changed since they last looked with {@link #getChangedRows(long, BitSet)}.
  */
 public class EmulatedTerminal extends Terminal {
 
@@ -41,11 +49,26 @@ public class EmulatedTerminal extends Terminal {
 		default void clearLine() {}
 	}
 
+	/**
+	 * The colours used for cells whose colour isn't a valid hexadecimal digit. These match
+	 * {@link net.clgd.ccemux.api.rendering.PaletteAdapter}'s defaults.
+	 */
+	private static final int DEFAULT_FOREGROUND = 0;
+	private static final int DEFAULT_BACKGROUND = 15;
+
 	private final EmulatedPalette palette;
 	private final List<Listener> listeners = new ArrayList<>();
 	private final AtomicBoolean changed;
 	private int scale;
 
+	/**
+	 * The packed cells, and the version of each row. These are guarded by {@code this}.
+	 */
+	private int[] cells;
+	private long[] rowVersions;
+	private int cellsWidth;
+	private long version;
+
 	public EmulatedTerminal(int width, int height) {
 		this(width, height, new AtomicBoolean(false));
 	}
@@ -54,15 +77,158 @@ public class EmulatedTerminal extends Terminal {
 		super(width, height, true, () -> changed.set(true));
 		this.palette = new EmulatedPalette(super.getPalette());
 		this.changed = changed;
+		refreshAll();
 	}
 
 	public boolean getAndClearChanged() {
 		return changed.getAndSet(false);
 	}
 
+	/**
+	 * Get the character in a packed cell.
+	 *
+	 * @param cell The packed cell.
+	 * @return The cell's character.
+	 */
+	public static char getCellChar(int cell) {
+		return (char) cell;
+	}
+
+	/**
+	 * Get the text colour of a packed cell.
+	 *
+	 * @param cell The packed cell.
+	 * @return The colour's index in the palette, between 0 and 15.
+	 */
+	public static int getCellForeground(int cell) {
+		return (cell >>> 16) & 0xF;
+	}
+
+	/**
+	 * Get the background colour of a packed cell.
+	 *
+	 * @param cell The packed cell.
+	 * @return The colour's index in the palette, between 0 and 15.
+	 */
+	public static int getCellBackground(int cell) {
+		return (cell >>> 20) & 0xF;
+	}
+
+	/**
+	 * Get a single packed cell.
+	 *
+	 * @param x The cell's column, starting at 0.
+	 * @param y The cell's row, starting at 0.
+	 * @return The packed cell.
+	 */
+	public synchronized int getCell(int x, int y) {
+		return cells[y * cellsWidth + x];
+	}
+
+	/**
+	 * Copy a row of packed cells.
+	 *
+	 * @param y      The row to copy, starting at 0.
+	 * @param into   The array to copy into.
+	 * @param offset The index in {@code into} to start copying to.
+	 */
+	public synchronized void copyRow(int y, @Nonnull int[] into, int offset) {
+		System.arraycopy(cells, y * cellsWidth, into, offset, cellsWidth);
+	}
+
+	/**
+	 * The terminal's current version. This increases every time a row changes.
+	 *
+	 * @return The current version.
+	 */
+	public synchronized long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Find which rows have changed since a given version.
+	 *
+	 * @param since The version to compare against, usually returned by a previous call to this method. Passing
+	 *              {@code -1} marks every row as changed.
+	 * @param into  The set to write changed rows into. This is cleared first.
+	 * @return The current version, which should be passed as {@code since} next time.
+	 */
+	public synchronized long getChangedRows(long since, @Nonnull BitSet into) {
+		into.clear();
+		for (int y = 0; y < rowVersions.length; y++) {
+			if (rowVersions[y] > since) into.set(y);
+		}
+		return version;
+	}
+
+	private void refreshAll() {
+		if (cells == null || cellsWidth != getWidth() || rowVersions.length != getHeight()) {
+			cellsWidth = getWidth();
+			cells = new int[getWidth() * getHeight()];
+			rowVersions = new long[getHeight()];
+		}
+
+		for (int y = 0; y < rowVersions.length; y++) refreshRow(y);
+	}
+
+	private void refreshRow(int y) {
+		// Terminal's constructor may call our overrides before our own fields are set up.
+		if (cells == null || y < 0 || y >= rowVersions.length) return;
+
+		TextBuffer text = getLine(y), fg = getTextColourLine(y), bg = getBackgroundColourLine(y);
+		int offset = y * cellsWidth;
+		for (int x = 0; x < cellsWidth; x++) {
+			int foreground = Utils.base16ToInt(fg.charAt(x)), background = Utils.base16ToInt(bg.charAt(x));
+			cells[offset + x] = text.charAt(x)
+				| (foreground < 0 ? DEFAULT_FOREGROUND : foreground) << 16
+				| (background < 0 ? DEFAULT_BACKGROUND : background) << 20;
+		}
+
+		rowVersions[y] = ++version;
+	}
+
+	/**
+	 * Move the packed cells to match a scroll, only reading the rows which have scrolled into view.
+	 */
+	private void scrollCells(int yDiff) {
+		int height = rowVersions.length;
+		if (Math.abs(yDiff) >= height) {
+			refreshAll();
+			return;
+		}
+
+		int moved = (height - Math.abs(yDiff)) * cellsWidth;
+		if (yDiff > 0) {
+			System.arraycopy(cells, yDiff * cellsWidth, cells, 0, moved);
+		} else {
+			System.arraycopy(cells, 0, cells, -yDiff * cellsWidth, moved);
+		}
+
+		long version = ++this.version;
+		for (int y = 0; y < height; y++) {
+			int source = y + yDiff;
+			if (source >= 0 && source < height) {
+				rowVersions[y] = version;
+			} else {
+				refreshRow(y);
+			}
+		}
+	}
+
+	@Override
+	public void reset() {
+		synchronized (this) {
+			super.reset();
+			if (cells != null) refreshAll();
+		}
+	}
+
 	@Override
 	public void resize(int width, int height) {
-		super.resize(width, height);
+		synchronized (this) {
+			super.resize(width, height);
+			if (cells != null) refreshAll();
+		}
 		for (Listener listener : listeners) {
 			listener.resize(width, height);
 		}
@@ -102,7 +268,10 @@ public class EmulatedTerminal extends Terminal {
 
 	@Override
 	public void blit(@Nonnull ByteBuffer text, @Nonnull ByteBuffer textColour, @Nonnull ByteBuffer backgroundColour) {
-		super.blit(text, textColour, backgroundColour);
+		synchronized (this) {
+			super.blit(text, textColour, backgroundColour);
+			refreshRow(getCursorY());
+		}
 		for (Listener listener : listeners) {
 			listener.blit(text, textColour, backgroundColour);
 		}
@@ -110,7 +279,10 @@ public class EmulatedTerminal extends Terminal {
 
 	@Override
 	public void write(@Nonnull String text) {
-		super.write(text);
+		synchronized (this) {
+			super.write(text);
+			refreshRow(getCursorY());
+		}
 		for (Listener listener : listeners) {
 			listener.write(text);
 		}
@@ -118,7 +290,10 @@ public class EmulatedTerminal extends Terminal {
 
 	@Override
 	public void scroll(int yDiff) {
-		super.scroll(yDiff);
+		synchronized (this) {
+			super.scroll(yDiff);
+			if (cells != null && yDiff != 0) scrollCells(yDiff);
+		}
 		for (Listener listener : listeners) {
 			listener.scroll(yDiff);
 		}
@@ -126,7 +301,10 @@ public class EmulatedTerminal extends Terminal {
 
 	@Override
 	public void clear() {
-		super.clear();
+		synchronized (this) {
+			super.clear();
+			if (cells != null) refreshAll();
+		}
 		for (Listener listener : listeners) {
 			listener.clear();
 		}
@@ -134,7 +312,10 @@ public class EmulatedTerminal extends Terminal {
 
 	@Override
 	public void clearLine() {
-		super.clearLine();
+		synchronized (this) {
+			super.clearLine();
+			refreshRow(getCursorY());
+		}
 		for (Listener listener : listeners) {
 			listener.clearLine();
 		}
@@ -1,6 +1,9 @@
 package net.clgd.ccemux.api.emulation;
 
 import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
 import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
@@ -76,6 +79,25 @@ public interface Emulator {
 	 */
 	boolean removeComputer(@Nonnull EmulatedComputer computer);
 
+	/**
+	 * Gets every computer currently running in this emulator
+	 */
+	@Nonnull
+	default Collection<? extends EmulatedComputer> getComputers() {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Gets the metrics recorded across every computer, including those which have since been removed
+	 *
+	 * @return A snapshot of each metric which has been observed, keyed by name.
+	 * @see EmulatedComputer#getMetrics()
+	 */
+	@Nonnull
+	default Map<String, MetricSnapshot> getMetrics() {
+		return Collections.emptyMap();
+	}
+
 	/**
 	 * Whether the emulator is running
 	 */
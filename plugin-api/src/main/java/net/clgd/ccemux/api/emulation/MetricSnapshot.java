@@ -0,0 +1,182 @@
+package net.clgd.ccemux.api.emulation;
+
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * An immutable snapshot of one of ComputerCraft's metrics, such as the time spent running Lua or the number of HTTP
+ * requests made.
+ * <p>
+ * Counters only track how often something happened. Events also track a value each time they happen (usually a
+ * duration in nanoseconds), which is summarised as a total, a maximum and a histogram.
+ */
+public final class MetricSnapshot {
+	/**
+	 * The number of buckets in an event's histogram. Bucket 0 holds values less than 1, and bucket {@code i} holds
+	 * values in the range {@code [2^(i-1), 2^i)}. The last bucket also holds anything larger.
+	 */
+	public static final int BUCKETS = 40;
+
+	private final String name;
+	private final String unit;
+	private final long count;
+	private final long total;
+	private final long max;
+	private final long[] buckets;
+
+	/**
+	 * Create a snapshot of a counter.
+	 *
+	 * @param name  The name of this metric.
+	 * @param count How many times this metric has been observed.
+	 */
+	public MetricSnapshot(@Nonnull String name, long count) {
+		this(name, "", count, count, 0, null);
+	}
+
+	/**
+	 * Create a snapshot of an event.
+	 *
+	 * @param name    The name of this metric.
+	 * @param unit    The unit of this metric's values.
+	 * @param count   How many times this metric has been observed.
+	 * @param total   The sum of every observed value.
+	 * @param max     The largest observed value.
+	 * @param buckets The histogram of observed values, with {@link #BUCKETS} entries. This array is not copied.
+	 */
+	public MetricSnapshot(@Nonnull String name, @Nonnull String unit, long count, long total, long max, @Nullable long[] buckets) {
+		if (buckets != null && buckets.length != BUCKETS) throw new IllegalArgumentException("Expected " + BUCKETS + " buckets");
+
+		this.name = name;
+		this.unit = unit;
+		this.count = count;
+		this.total = total;
+		this.max = max;
+		this.buckets = buckets;
+	}
+
+	/**
+	 * Find which histogram bucket a value belongs to.
+	 *
+	 * @param value The value to bucket.
+	 * @return The index of its bucket.
+	 */
+	public static int bucket(long value) {
+		return value <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value));
+	}
+
+	@Nonnull
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * The unit of this metric's values, or an empty string if it is a counter.
+	 */
+	@Nonnull
+	public String getUnit() {
+		return unit;
+	}
+
+	/**
+	 * Whether this metric is an event, and so tracks values rather than just counting.
+	 */
+	public boolean isEvent() {
+		return buckets != null;
+	}
+
+	/**
+	 * How many times this metric has been observed.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * The sum of every observed value. For counters, this is the same as {@link #getCount()}.
+	 */
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 * The largest observed value, or 0 for counters.
+	 */
+	public long getMax() {
+		return max;
+	}
+
+	public double getMean() {
+		return count == 0 ? 0 : (double) total / count;
+	}
+
+	/**
+	 * Get the histogram of observed values.
+	 *
+	 * @return A copy of the histogram, or an empty array for counters.
+	 * @see #BUCKETS
+	 */
+	@Nonnull
+	public long[] getBuckets() {
+		return buckets == null ? new long[0] : buckets.clone();
+	}
+
+	/**
+	 * Estimate a percentile of the observed values. As values are grouped into power-of-two buckets, this returns
+	 * the upper bound of the bucket which contains the percentile, capped to {@link #getMax()}.
+	 *
+	 * @param percentile The percentile to find, between 0 and 1.
+	 * @return The estimated value, or 0 if this is not an event or it has not been observed.
+	 */
+	public long getPercentile(double percentile) {
+		if (buckets == null || count == 0) return 0;
+
+		long target = Math.max(1, (long) Math.ceil(percentile * count));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += buckets[i];
+			if (seen >= target) return i == 0 ? 0 : Math.min(max, (1L << i) - 1);
+		}
+
+		return max;
+	}
+
+	/**
+	 * Combine this snapshot with another snapshot of the same metric.
+	 *
+	 * @param other The snapshot to combine with.
+	 * @return The combined snapshot.
+	 */
+	@Nonnull
+	public MetricSnapshot merge(@Nonnull MetricSnapshot other) {
+		if (buckets == null || other.buckets == null) return new MetricSnapshot(name, count + other.count);
+
+		long[] merged = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) merged[i] = buckets[i] + other.buckets[i];
+		return new MetricSnapshot(name, unit, count + other.count, total + other.total, Math.max(max, other.max), merged);
+	}
+
+	@Override
+	public String toString() {
+		return isEvent()
+			? String.format("%s: count=%d total=%d%s max=%d%s", name, count, total, unit, max, unit)
+			: String.format("%s: count=%d", name, count);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof MetricSnapshot)) return false;
+
+		MetricSnapshot other = (MetricSnapshot) o;
+		return count == other.count && total == other.total && max == other.max
+			&& name.equals(other.name) && unit.equals(other.unit) && Arrays.equals(buckets, other.buckets);
+	}
+
+	@Override
+	public int hashCode() {
+		return name.hashCode() * 31 + Long.hashCode(count);
+	}
+}
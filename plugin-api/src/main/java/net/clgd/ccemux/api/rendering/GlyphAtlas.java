@@ -0,0 +1,150 @@
+package net.clgd.ccemux.api.rendering;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Every glyph of a {@link TerminalFont}, scaled to the size they will be drawn at.
+ * <p>
+ * Glyphs are laid out in a {@link TerminalFont#COLUMNS} by {@link TerminalFont#ROWS} sheet without any margins, so
+ * glyph {@code c} starts at {@code (c % COLUMNS * glyphWidth, c / COLUMNS * glyphHeight)}. The atlas itself is
+ * untinted: {@link #tint(int, int[])} produces a copy of the sheet for a single palette colour, which renderers can then
+ * draw from by index.
+ */
+public final class GlyphAtlas {
+	/**
+	 * The number of glyphs in a font.
+	 */
+	public static final int GLYPHS = TerminalFont.COLUMNS * TerminalFont.ROWS;
+
+	private final int glyphWidth;
+	private final int glyphHeight;
+	private final int sheetWidth;
+	private final int sheetHeight;
+
+	/**
+	 * The ARGB pixels of the sheet.
+	 */
+	private final int[] pixels;
+
+	/**
+	 * Whether each glyph is fully transparent, and so can be skipped entirely.
+	 */
+	private final boolean[] blank = new boolean[GLYPHS];
+
+	/**
+	 * Build an atlas from a font's image, scaling each glyph with nearest-neighbour sampling.
+	 *
+	 * @param font        The font the image belongs to, used to locate each glyph.
+	 * @param image       The ARGB pixels of the font's image.
+	 * @param imageWidth  The width of the font's image.
+	 * @param glyphWidth  The width to draw each glyph at.
+	 * @param glyphHeight The height to draw each glyph at.
+	 */
+	public GlyphAtlas(@Nonnull TerminalFont font, @Nonnull int[] image, int imageWidth, int glyphWidth, int glyphHeight) {
+		if (glyphWidth <= 0 || glyphHeight <= 0) throw new IllegalArgumentException("Glyphs must have a positive size");
+
+		this.glyphWidth = glyphWidth;
+		this.glyphHeight = glyphHeight;
+		this.sheetWidth = glyphWidth * TerminalFont.COLUMNS;
+		this.sheetHeight = glyphHeight * TerminalFont.ROWS;
+		this.pixels = new int[sheetWidth * sheetHeight];
+
+		int charWidth = font.getCharWidth(), charHeight = font.getCharHeight();
+		for (int c = 0; c < GLYPHS; c++) {
+			int srcX = font.getCharX((char) c), srcY = font.getCharY((char) c);
+			int dstX = c % TerminalFont.COLUMNS * glyphWidth, dstY = c / TerminalFont.COLUMNS * glyphHeight;
+
+			boolean empty = true;
+			for (int y = 0; y < glyphHeight; y++) {
+				int srcRow = (srcY + y * charHeight / glyphHeight) * imageWidth + srcX;
+				int dstRow = (dstY + y) * sheetWidth + dstX;
+				for (int x = 0; x < glyphWidth; x++) {
+					int pixel = image[srcRow + x * charWidth / glyphWidth];
+					pixels[dstRow + x] = pixel;
+					if ((pixel >>> 24) != 0) empty = false;
+				}
+			}
+
+			blank[c] = empty;
+		}
+	}
+
+	public int getGlyphWidth() {
+		return glyphWidth;
+	}
+
+	public int getGlyphHeight() {
+		return glyphHeight;
+	}
+
+	/**
+	 * The width of the whole sheet, in pixels.
+	 */
+	public int getSheetWidth() {
+		return sheetWidth;
+	}
+
+	/**
+	 * The height of the whole sheet, in pixels.
+	 */
+	public int getSheetHeight() {
+		return sheetHeight;
+	}
+
+	/**
+	 * Get the x coordinate of a glyph within the sheet.
+	 *
+	 * @param c The glyph's character.
+	 * @return The glyph's left edge, in pixels.
+	 */
+	public int getGlyphX(char c) {
+		return (c & 0xFF) % TerminalFont.COLUMNS * glyphWidth;
+	}
+
+	/**
+	 * Get the y coordinate of a glyph within the sheet.
+	 *
+	 * @param c The glyph's character.
+	 * @return The glyph's top edge, in pixels.
+	 */
+	public int getGlyphY(char c) {
+		return (c & 0xFF) / TerminalFont.COLUMNS * glyphHeight;
+	}
+
+	/**
+	 * Whether a glyph has no visible pixels.
+	 *
+	 * @param c The glyph's character.
+	 * @return If drawing this glyph can be skipped.
+	 */
+	public boolean isBlank(char c) {
+		return c >= GLYPHS || blank[c];
+	}
+
+	/**
+	 * The untinted ARGB pixels of the sheet. This array is shared, and must not be modified.
+	 *
+	 * @return The sheet's pixels, in rows of {@link #getSheetWidth()}.
+	 */
+	@Nonnull
+	public int[] getPixels() {
+		return pixels;
+	}
+
+	/**
+	 * Tint every glyph in the sheet with a colour, multiplying each channel of the glyph by the colour's channel.
+	 *
+	 * @param rgb  The colour to tint with, as {@code 0xRRGGBB}.
+	 * @param into The array to write the tinted ARGB pixels to. This must be at least as large as the sheet.
+	 */
+	public void tint(int rgb, @Nonnull int[] into) {
+		int r = (rgb >> 16) & 0xFF, g = (rgb >> 8) & 0xFF, b = rgb & 0xFF;
+		for (int i = 0; i < pixels.length; i++) {
+			int pixel = pixels[i];
+			into[i] = (pixel & 0xFF000000)
+				| ((pixel >> 16 & 0xFF) * r / 255) << 16
+				| ((pixel >> 8 & 0xFF) * g / 255) << 8
+				| (pixel & 0xFF) * b / 255;
+		}
+	}
+}
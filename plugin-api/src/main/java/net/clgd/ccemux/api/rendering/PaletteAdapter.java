@@ -88,6 +88,22 @@ public final class PaletteAdapter<C> {
 		);
 	}
 
+	/**
+	 * Gets the given color from the palette as a packed integer, without creating a color object.
+	 *
+	 * @param c   The numeric index of the terminal color
+	 * @param def The default color index if none exists for {@code c}.
+	 * @return The color, in the form {@code 0xRRGGBB}
+	 */
+	public int getRGB(int c, int def) {
+		double[] col = c >= 0 && c <= 15 ? palette.getColour(15 - c) : palette.getColour(def);
+		return channel(col[0]) << 16 | channel(col[1]) << 8 | channel(col[2]);
+	}
+
+	private static int channel(double value) {
+		return (int) (Utils.constrainToRange(value, 0, 1) * 255 + 0.5);
+	}
+
 	/**
 	 * Creates a color object using the given color from the palette
 	 *
@@ -21,6 +21,14 @@ public interface Renderer extends EmulatedComputer.Listener {
 	 */
 	boolean isVisible();
 
+	/**
+	 * Whether a user can currently see this renderer's terminal. Unlike {@link #isVisible()}, this is false when the
+	 * renderer's window is minimised. This may be called from any thread.
+	 */
+	default boolean isWatched() {
+		return isVisible();
+	}
+
 	/**
 	 * Sets user visibility of this renderer
 	 */
@@ -41,6 +49,15 @@ public interface Renderer extends EmulatedComputer.Listener {
 	 */
 	void removeListener(@Nonnull Listener l);
 
+	/**
+	 * The number of frames this renderer has drawn, used to monitor the renderer's frame rate
+	 *
+	 * @return The number of frames drawn, or -1 if this renderer does not draw frames.
+	 */
+	default long getFrameCount() {
+		return -1;
+	}
+
 	@Override
 	default void onAdvance(double dt) {}
 }
@@ -153,8 +153,29 @@ public abstract class TerminalFont {
 	 */
 	@Nonnull
 	public Rectangle getCharCoords(char c) {
-		int charcode = c;
-		return new Rectangle(margin + charcode % COLUMNS * (getCharWidth() + margin * 2), margin + charcode / ROWS * (getCharHeight() + margin * 2), getCharWidth(), getCharHeight());
+		return new Rectangle(getCharX(c), getCharY(c), getCharWidth(), getCharHeight());
+	}
+
+	/**
+	 * Gets the scaled x coordinate of a given character in this font, without allocating a {@link Rectangle}.
+	 *
+	 * @param c The character
+	 * @return The x coordinate of the character's left edge
+	 * @see #getCharCoords(char)
+	 */
+	public int getCharX(char c) {
+		return margin + c % COLUMNS * (getCharWidth() + margin * 2);
+	}
+
+	/**
+	 * Gets the scaled y coordinate of a given character in this font, without allocating a {@link Rectangle}.
+	 *
+	 * @param c The character
+	 * @return The y coordinate of the character's top edge
+	 * @see #getCharCoords(char)
+	 */
+	public int getCharY(char c) {
+		return margin + c / ROWS * (getCharHeight() + margin * 2);
 	}
 
 	/**
@@ -0,0 +1,222 @@
+package net.clgd.ccemux.api.rendering;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Draws a {@link TerminalSnapshot} straight into an ARGB {@code int[]} framebuffer, using the glyphs from a
+ * {@link GlyphAtlas}.
+ * <p>
+ * This does not depend on any particular UI toolkit: AWT can wrap the framebuffer in a
+ * {@link java.awt.image.DataBufferInt}, and other renderers can copy it wherever they need. The framebuffer is laid
+ * out in rows of {@link #getWidth(TerminalSnapshot)} pixels, and includes a margin around the edge of the terminal which is
+ * filled with the colour of the nearest cell.
+ * <p>
+ * Glyphs are copied from copies of the atlas tinted with each palette colour. A colour's sheet is only tinted the first
+ * time a glyph is drawn in it, and again when that palette slot changes colour, so drawing a cell does no per-pixel
+ * colour maths unless the glyph is anti-aliased. Rasterizers may be shared between threads.
+ */
+public final class TerminalRasterizer {
+	private static final char CURSOR_CHAR = '_';
+
+	private final GlyphAtlas atlas;
+	private final int cellWidth;
+	private final int cellHeight;
+	private final int margin;
+
+	private volatile Tints tints = new Tints(new int[16], new int[16][]);
+
+	/**
+	 * Create a new rasterizer.
+	 *
+	 * @param atlas  The glyphs to draw with. Each cell is the size of a single glyph.
+	 * @param margin The width of the margin around the terminal, in pixels.
+	 */
+	public TerminalRasterizer(@Nonnull GlyphAtlas atlas, int margin) {
+		this.atlas = atlas;
+		this.cellWidth = atlas.getGlyphWidth();
+		this.cellHeight = atlas.getGlyphHeight();
+		this.margin = margin;
+	}
+
+	public int getCellWidth() {
+		return cellWidth;
+	}
+
+	public int getCellHeight() {
+		return cellHeight;
+	}
+
+	public int getMargin() {
+		return margin;
+	}
+
+	/**
+	 * Get the width of a terminal's framebuffer.
+	 *
+	 * @param terminal The terminal to draw.
+	 * @return The framebuffer's width, in pixels.
+	 */
+	public int getWidth(@Nonnull TerminalSnapshot terminal) {
+		return terminal.getWidth() * cellWidth + margin * 2;
+	}
+
+	/**
+	 * Get the height of a terminal's framebuffer.
+	 *
+	 * @param terminal The terminal to draw.
+	 * @return The framebuffer's height, in pixels.
+	 */
+	public int getHeight(@Nonnull TerminalSnapshot terminal) {
+		return terminal.getHeight() * cellHeight + margin * 2;
+	}
+
+	/**
+	 * Draw the whole terminal, including the cursor.
+	 *
+	 * @param terminal The terminal to draw.
+	 * @param pixels   The framebuffer to draw to, at least {@link #getWidth(TerminalSnapshot)} by
+	 *                 {@link #getHeight(TerminalSnapshot)}.
+	 */
+	public void rasterize(@Nonnull TerminalSnapshot terminal, @Nonnull int[] pixels) {
+		for (int y = 0; y < terminal.getHeight(); y++) rasterizeRow(terminal, pixels, y);
+	}
+
+	/**
+	 * Draw a single row of the terminal, including the cursor if it is visible and on this row.
+	 *
+	 * @param terminal The terminal to draw.
+	 * @param pixels   The framebuffer to draw to.
+	 * @param y        The row to draw, starting at 0.
+	 */
+	public void rasterizeRow(@Nonnull TerminalSnapshot terminal, @Nonnull int[] pixels, int y) {
+		if (y < 0 || y >= terminal.getHeight()) return;
+
+		for (int x = 0; x < terminal.getWidth(); x++) drawCell(terminal, pixels, x, y);
+		if (terminal.isCursorVisible() && terminal.getCursorY() == y) drawCursor(terminal, pixels);
+	}
+
+	/**
+	 * Draw a single cell of the terminal, including the cursor if it is visible and in this cell.
+	 *
+	 * @param terminal The terminal to draw.
+	 * @param pixels   The framebuffer to draw to.
+	 * @param x        The column of the cell, starting at 0.
+	 * @param y        The row of the cell, starting at 0.
+	 */
+	public void rasterizeCell(@Nonnull TerminalSnapshot terminal, @Nonnull int[] pixels, int x, int y) {
+		if (x < 0 || x >= terminal.getWidth() || y < 0 || y >= terminal.getHeight()) return;
+
+		drawCell(terminal, pixels, x, y);
+		if (terminal.isCursorVisible() && terminal.getCursorX() == x && terminal.getCursorY() == y) drawCursor(terminal, pixels);
+	}
+
+	private void drawCursor(TerminalSnapshot terminal, int[] pixels) {
+		drawGlyph(terminal, pixels, terminal.getCursorX(), terminal.getCursorY(), CURSOR_CHAR, terminal.getCursorColour());
+	}
+
+	/**
+	 * Fill a cell with its background colour (including any margin it borders), then draw its glyph.
+	 */
+	private void drawCell(TerminalSnapshot terminal, int[] pixels, int x, int y) {
+		int width = terminal.getWidth(), height = terminal.getHeight();
+		int stride = getWidth(terminal);
+
+		int left = x == 0 ? 0 : margin + x * cellWidth;
+		int right = x == width - 1 ? stride : margin + (x + 1) * cellWidth;
+		int top = y == 0 ? 0 : margin + y * cellHeight;
+		int bottom = y == height - 1 ? getHeight(terminal) : margin + (y + 1) * cellHeight;
+
+		int background = 0xFF000000 | terminal.getPaletteColour(terminal.getBackground(x, y));
+		for (int py = top; py < bottom; py++) {
+			int row = py * stride;
+			for (int px = left; px < right; px++) pixels[row + px] = background;
+		}
+
+		char c = terminal.getChar(x, y);
+		if (c != '\0' && !Character.isSpaceChar(c)) {
+			drawGlyph(terminal, pixels, x, y, c, terminal.getForeground(x, y));
+		}
+	}
+
+	/**
+	 * Copy a glyph from the sheet for its colour, blending it over whatever is already in the cell.
+	 */
+	private void drawGlyph(TerminalSnapshot terminal, int[] pixels, int x, int y, char c, int colour) {
+		if (atlas.isBlank(c)) return;
+
+		int stride = getWidth(terminal);
+		int[] glyphs = getSheet(colour & 15, terminal.getPaletteColour(colour));
+		int sheetWidth = atlas.getSheetWidth();
+		int sx = atlas.getGlyphX(c), sy = atlas.getGlyphY(c);
+		int dx = margin + x * cellWidth, dy = margin + y * cellHeight;
+
+		for (int py = 0; py < cellHeight; py++) {
+			int src = (sy + py) * sheetWidth + sx;
+			int dst = (dy + py) * stride + dx;
+			for (int px = 0; px < cellWidth; px++) {
+				int glyph = glyphs[src + px];
+				int alpha = glyph >>> 24;
+				if (alpha == 0) continue;
+
+				if (alpha == 0xFF) {
+					pixels[dst + px] = glyph;
+				} else {
+					int under = pixels[dst + px];
+					pixels[dst + px] = 0xFF000000
+						| blend(under >> 16 & 0xFF, glyph >> 16 & 0xFF, alpha) << 16
+						| blend(under >> 8 & 0xFF, glyph >> 8 & 0xFF, alpha) << 8
+						| blend(under & 0xFF, glyph & 0xFF, alpha);
+				}
+			}
+		}
+	}
+
+	private static int blend(int under, int over, int alpha) {
+		return (under * (255 - alpha) + over * alpha) / 255;
+	}
+
+	/**
+	 * Get the atlas tinted with a palette slot's colour, tinting it if the slot has not been drawn with before or has
+	 * changed colour since.
+	 *
+	 * @param colour The palette slot, between 0 and 15.
+	 * @param rgb    The slot's current colour, as {@code 0xRRGGBB}.
+	 * @return The tinted sheet. This is shared, and must not be modified.
+	 */
+	private int[] getSheet(int colour, int rgb) {
+		Tints tints = this.tints;
+		int[] sheet = tints.sheets[colour];
+		if (sheet != null && tints.colours[colour] == rgb) return sheet;
+
+		synchronized (this) {
+			tints = this.tints;
+			sheet = tints.sheets[colour];
+			if (sheet != null && tints.colours[colour] == rgb) return sheet;
+
+			// Other threads may be drawing from the current sheets, so tint into a new one and publish a new set.
+			sheet = new int[atlas.getSheetWidth() * atlas.getSheetHeight()];
+			atlas.tint(rgb, sheet);
+
+			int[] colours = tints.colours.clone();
+			int[][] sheets = tints.sheets.clone();
+			colours[colour] = rgb;
+			sheets[colour] = sheet;
+			this.tints = new Tints(colours, sheets);
+			return sheet;
+		}
+	}
+
+	/**
+	 * The sheet tinted for each palette slot, or {@code null} if it has not been tinted yet, and the colour it was
+	 * tinted with. This is never modified once published.
+	 */
+	private static final class Tints {
+		final int[] colours;
+		final int[][] sheets;
+
+		Tints(int[] colours, int[][] sheets) {
+			this.colours = colours;
+			this.sheets = sheets;
+		}
+	}
+}
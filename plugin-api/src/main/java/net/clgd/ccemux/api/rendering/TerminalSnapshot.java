@@ -0,0 +1,274 @@
+package net.clgd.ccemux.api.rendering;
+
+import java.util.BitSet;
+
+import javax.annotation.Nonnull;
+
+import dan200.computercraft.core.terminal.Palette;
+import dan200.computercraft.core.terminal.Terminal;
+import dan200.computercraft.core.terminal.TextBuffer;
+import net.clgd.ccemux.api.Utils;
+import net.clgd.ccemux.api.emulation.EmulatedTerminal;
+
+/**
+ * A copy of a terminal's contents, which can be drawn without holding a lock on the terminal.
+ * <p>
+ * Snapshots are meant to be reused: capturing into an existing snapshot of the same size does not allocate, and only
+ * the rows which have changed need to be copied. A snapshot is not thread-safe, so callers must synchronise access to
+ * it themselves.
+ * <p>
+ * Snapshots can also be filled in by hand, such as when replaying a recording of a terminal.
+ */
+public final class TerminalSnapshot {
+	private int width;
+	private int height;
+
+	/**
+	 * The terminal's cells, packed in the same format as {@link EmulatedTerminal#getCell(int, int)}.
+	 */
+	private int[] cells = new int[0];
+
+	private int cursorX;
+	private int cursorY;
+	private boolean cursorVisible;
+	private int cursorColour;
+
+	/**
+	 * The palette, as {@code 0xRRGGBB}, indexed by colour.
+	 */
+	private final int[] palette = new int[16];
+
+	/**
+	 * Copy the whole terminal into this snapshot. The caller should hold a lock on the terminal.
+	 *
+	 * @param terminal The terminal to copy.
+	 */
+	public void capture(@Nonnull Terminal terminal) {
+		resize(terminal.getWidth(), terminal.getHeight());
+		for (int y = 0; y < height; y++) captureRow(terminal, y);
+		captureState(terminal);
+	}
+
+	/**
+	 * Copy some rows of the terminal into this snapshot, along with the cursor and palette. If the terminal has been
+	 * resized, the whole terminal is copied instead.
+	 *
+	 * @param terminal The terminal to copy.
+	 * @param rows     The rows to copy.
+	 * @return Whether the whole terminal was copied.
+	 */
+	public boolean capture(@Nonnull Terminal terminal, @Nonnull BitSet rows) {
+		if (terminal.getWidth() != width || terminal.getHeight() != height) {
+			capture(terminal);
+			return true;
+		}
+
+		for (int y = rows.nextSetBit(0); y >= 0 && y < height; y = rows.nextSetBit(y + 1)) captureRow(terminal, y);
+		captureState(terminal);
+		return false;
+	}
+
+	/**
+	 * Copy another snapshot into this one.
+	 *
+	 * @param other The snapshot to copy.
+	 */
+	public void copyFrom(@Nonnull TerminalSnapshot other) {
+		resize(other.width, other.height);
+		System.arraycopy(other.cells, 0, cells, 0, width * height);
+		copyState(other);
+	}
+
+	/**
+	 * Copy some rows of another snapshot into this one, along with the cursor and palette. If the snapshots are
+	 * different sizes, the whole snapshot is copied instead.
+	 *
+	 * @param other The snapshot to copy.
+	 * @param rows  The rows to copy.
+	 * @return Whether the whole snapshot was copied.
+	 */
+	public boolean copyFrom(@Nonnull TerminalSnapshot other, @Nonnull BitSet rows) {
+		if (other.width != width || other.height != height) {
+			copyFrom(other);
+			return true;
+		}
+
+		for (int y = rows.nextSetBit(0); y >= 0 && y < height; y = rows.nextSetBit(y + 1)) {
+			System.arraycopy(other.cells, y * width, cells, y * width, width);
+		}
+		copyState(other);
+		return false;
+	}
+
+	/**
+	 * Resize this snapshot. If the size changes, every cell is cleared.
+	 *
+	 * @param width  The new width, in cells.
+	 * @param height The new height, in cells.
+	 */
+	public void setSize(int width, int height) {
+		resize(width, height);
+	}
+
+	/**
+	 * Set a single cell.
+	 *
+	 * @param x          The column of the cell, starting at 0.
+	 * @param y          The row of the cell, starting at 0.
+	 * @param c          The character in the cell.
+	 * @param foreground The text colour's index in the palette, between 0 and 15.
+	 * @param background The background colour's index in the palette, between 0 and 15.
+	 */
+	public void setCell(int x, int y, char c, int foreground, int background) {
+		cells[y * width + x] = c | (foreground & 0xF) << 16 | (background & 0xF) << 20;
+	}
+
+	/**
+	 * Set the cursor's position and appearance.
+	 *
+	 * @param x       The cursor's column, starting at 0.
+	 * @param y       The cursor's row, starting at 0.
+	 * @param visible Whether the cursor should be drawn. This is ignored if the cursor is off screen.
+	 * @param colour  The cursor's index in the palette, between 0 and 15.
+	 */
+	public void setCursor(int x, int y, boolean visible, int colour) {
+		cursorX = x;
+		cursorY = y;
+		cursorVisible = visible && x >= 0 && x < width && y >= 0 && y < height;
+		cursorColour = colour & 0xF;
+	}
+
+	/**
+	 * Set a colour in the palette.
+	 *
+	 * @param colour The colour's index, between 0 and 15.
+	 * @param rgb    The colour, as {@code 0xRRGGBB}.
+	 */
+	public void setPaletteColour(int colour, int rgb) {
+		palette[colour] = rgb & 0xFFFFFF;
+	}
+
+	private void resize(int width, int height) {
+		if (width == this.width && height == this.height) return;
+
+		this.width = width;
+		this.height = height;
+		cells = new int[width * height];
+	}
+
+	private void captureRow(Terminal terminal, int y) {
+		if (terminal instanceof EmulatedTerminal) {
+			((EmulatedTerminal) terminal).copyRow(y, cells, y * width);
+			return;
+		}
+
+		TextBuffer textLine = terminal.getLine(y);
+		TextBuffer fgLine = terminal.getTextColourLine(y);
+		TextBuffer bgLine = terminal.getBackgroundColourLine(y);
+
+		int offset = y * width;
+		for (int x = 0; x < width; x++) {
+			cells[offset + x] = textLine.charAt(x)
+				| colour(fgLine.charAt(x), PaletteAdapter.DEFAULT_FOREGROUND) << 16
+				| colour(bgLine.charAt(x), PaletteAdapter.DEFAULT_BACKGROUND) << 20;
+		}
+	}
+
+	private void captureState(Terminal terminal) {
+		cursorX = terminal.getCursorX();
+		cursorY = terminal.getCursorY();
+		cursorVisible = terminal.getCursorBlink() && Utils.getGlobalCursorBlink()
+			&& cursorX >= 0 && cursorX < width && cursorY >= 0 && cursorY < height;
+
+		int colour = terminal.getTextColour();
+		cursorColour = colour >= 0 && colour <= 15 ? colour : 15 - PaletteAdapter.DEFAULT_FOREGROUND;
+
+		Palette palette = terminal.getPalette();
+		for (int i = 0; i < 16; i++) {
+			double[] rgb = palette.getColour(15 - i);
+			this.palette[i] = channel(rgb[0]) << 16 | channel(rgb[1]) << 8 | channel(rgb[2]);
+		}
+	}
+
+	private void copyState(TerminalSnapshot other) {
+		cursorX = other.cursorX;
+		cursorY = other.cursorY;
+		cursorVisible = other.cursorVisible;
+		cursorColour = other.cursorColour;
+		System.arraycopy(other.palette, 0, palette, 0, palette.length);
+	}
+
+	private static int channel(double value) {
+		return (int) (Utils.constrainToRange(value, 0, 1) * 255 + 0.5);
+	}
+
+	private static int colour(char c, int def) {
+		int colour = Utils.base16ToInt(c);
+		return colour < 0 ? 15 - def : colour;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public char getChar(int x, int y) {
+		return EmulatedTerminal.getCellChar(cells[y * width + x]);
+	}
+
+	/**
+	 * Get the text colour of a cell.
+	 *
+	 * @return The colour's index in the palette, between 0 and 15.
+	 */
+	public int getForeground(int x, int y) {
+		return EmulatedTerminal.getCellForeground(cells[y * width + x]);
+	}
+
+	/**
+	 * Get the background colour of a cell.
+	 *
+	 * @return The colour's index in the palette, between 0 and 15.
+	 */
+	public int getBackground(int x, int y) {
+		return EmulatedTerminal.getCellBackground(cells[y * width + x]);
+	}
+
+	public int getCursorX() {
+		return cursorX;
+	}
+
+	public int getCursorY() {
+		return cursorY;
+	}
+
+	/**
+	 * Whether the cursor was visible when this snapshot was taken. This is false if the cursor is off screen, not
+	 * blinking, or in the hidden phase of its blink.
+	 */
+	public boolean isCursorVisible() {
+		return cursorVisible;
+	}
+
+	/**
+	 * The colour of the cursor.
+	 *
+	 * @return The colour's index in the palette, between 0 and 15.
+	 */
+	public int getCursorColour() {
+		return cursorColour;
+	}
+
+	/**
+	 * Get a colour from the palette.
+	 *
+	 * @param colour The colour's index, between 0 and 15.
+	 * @return The colour, as {@code 0xRRGGBB}.
+	 */
+	public int getPaletteColour(int colour) {
+		return palette[colour];
+	}
+}
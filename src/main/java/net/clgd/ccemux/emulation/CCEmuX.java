@@ -3,24 +3,46 @@ package net.clgd.ccemux.emulation;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 import dan200.computercraft.core.ComputerContext;
 import net.clgd.ccemux.api.emulation.EmulatedComputer;
 import net.clgd.ccemux.api.emulation.EmulatedTerminal;
 import net.clgd.ccemux.api.emulation.Emulator;
+import net.clgd.ccemux.api.emulation.MetricSnapshot;
 import net.clgd.ccemux.api.peripheral.PeripheralFactory;
 import net.clgd.ccemux.api.rendering.Renderer;
 import net.clgd.ccemux.api.rendering.RendererFactory;
 import net.clgd.ccemux.init.UserConfig;
+import net.clgd.ccemux.init.UserConfigCCTweaked;
+import net.clgd.ccemux.jfr.TickEvent;
 import net.clgd.ccemux.plugins.PluginManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,12 +50,49 @@ import org.slf4j.LoggerFactory;
 public class CCEmuX implements Runnable, Emulator {
 	private static final Logger log = LoggerFactory.getLogger(CCEmuX.class);
 
+	/**
+	 * The length of a single tick, in nanoseconds
+	 */
+	public static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+	/**
+	 * The length of a single tick, in seconds
+	 */
+	public static final double TICK_LENGTH = TICK_NANOS / 1e9;
+
+	/**
+	 * The number of ticks a computer must be idle for before we stop ticking it. This gives renderers time to draw the
+	 * computer's final state.
+	 */
+	private static final int IDLE_GRACE_TICKS = 20;
+
+	private static final String MANAGEMENT_DOMAIN = "net.clgd.ccemux";
+
+	private static final long IDLE_POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+	/**
+	 * The most times we poll for computers to handle their queued events before running the next tick anyway.
+	 */
+	private static final int IDLE_MAX_POLLS = 10;
+
+	/**
+	 * The number of ticks in a row computers may appear to have queued events before we warn that the estimate looks
+	 * stuck.
+	 */
+	private static final int IDLE_STUCK_TICKS = 200;
+
 	public CCEmuX(UserConfig cfg, RendererFactory<?> rendererFactory, PluginManager pluginMgr, File ccSource, Path sessionPath) {
 		this.cfg = cfg;
 		this.rendererFactory = rendererFactory;
 		this.pluginMgr = pluginMgr;
 		this.ccSource = ccSource;
 		this.sessionPath = sessionPath;
+		this.scheduler = new TickScheduler(TICK_NANOS, TickScheduler.CatchUpPolicy.parse(cfg.tickCatchUp.get()), cfg.maxCatchUpTicks.get());
+		this.scheduler.setSpeed(cfg.speed.get());
+
+		this.mainThreadScheduler = new MainThreadSchedulerImpl(cfg.mainThreadBudget.get(), cfg.mainThreadComputerBudget.get());
+		this.contextThreads = getComputerThreads(cfg);
+		this.context = createContext(contextThreads);
 	}
 
 	private static String getVersionProperty(String name) {
@@ -64,14 +123,70 @@ public class CCEmuX implements Runnable, Emulator {
 
 	private final Path sessionPath;
 
-	private final Map<EmulatedComputer, Renderer> computers = new ConcurrentHashMap<>();
+	private final Map<EmulatedComputerImpl, Renderer> computers = new ConcurrentHashMap<>();
+
+	private final TickScheduler scheduler;
+
+	/**
+	 * The computers which are ticked when {@link UserConfig#idleTracking idle tracking} is enabled.
+	 * <p>
+	 * Only computers which are off are ever removed. A computer which is on may be waiting on a timer, and CC: Tweaked
+	 * neither counts timers down outside {@code Computer.tick()} nor exposes when the next one is due, so we cannot
+	 * know how long it would be safe to stop ticking it for.
+	 */
+	private final Set<EmulatedComputerImpl> awake = ConcurrentHashMap.newKeySet();
+	private volatile boolean idleTracking;
+
+	/**
+	 * How often computers nobody is watching are ticked. See {@link UserConfig#unwatchedTickInterval}.
+	 */
+	private volatile int unwatchedTickInterval = 1;
+
+	/**
+	 * The pool used to tick computers in parallel, or {@code null} if they are ticked on the emulator thread.
+	 */
+	private ForkJoinPool tickPool;
+
+	/**
+	 * Computers whose removal was requested while they were being ticked on the {@link #tickPool}.
+	 */
+	private final Queue<EmulatedComputer> deferredRemovals = new ConcurrentLinkedQueue<>();
 
 	private int nextID = 0;
 
-	private long started = -1;
+	/**
+	 * The number of ticks in a row where {@link #awaitIdle()} gave up waiting. Only used on the emulator thread.
+	 */
+	private int idleWaitsTimedOut = 0;
+
+	/**
+	 * The number of ticks run since the emulator started. This drives the emulated clock.
+	 */
+	private volatile long ticks;
+
 	private boolean running;
 
-	private final ComputerContext context = ComputerContext.builder(new GlobalEnvironmentImpl(this)).build();
+	private final MainThreadSchedulerImpl mainThreadScheduler;
+
+	/**
+	 * The context new computers are created in.
+	 */
+	private volatile ComputerContext context;
+	private int contextThreads;
+
+	/**
+	 * Contexts which have been replaced by a new {@link #context}, but still have computers running in them.
+	 */
+	private final Set<ComputerContext> retiredContexts = ConcurrentHashMap.newKeySet();
+
+	private final ComputerThreadMonitor threadMonitor = new ComputerThreadMonitor();
+
+	private final TickProfiler profiler = new TickProfiler();
+
+	/**
+	 * The metrics of every computer which has been removed, so they are still included in {@link #getMetrics()}.
+	 */
+	private final MetricsAggregator retiredMetrics = new MetricsAggregator();
 
 	@Nonnull
 	@Override
@@ -119,12 +234,12 @@ public class CCEmuX implements Runnable, Emulator {
 	@Nonnull
 	public EmulatedComputer createComputer(@Nonnull Consumer<EmulatedComputer.Builder> builderMutator) {
 		EmulatedTerminal term = new EmulatedTerminal(cfg.termWidth.get(), cfg.termHeight.get());
-		EmulatedComputer.Builder builder = EmulatedComputerImpl.builder(this, term).id(-1);
+		EmulatedComputerImpl.BuilderImpl builder = EmulatedComputerImpl.builder(this, term).id(-1);
 
 		pluginMgr.onCreatingComputer(this, builder);
 		builderMutator.accept(builder);
 
-		EmulatedComputer computer = builder.build();
+		EmulatedComputerImpl computer = builder.build();
 
 		pluginMgr.onComputerCreated(this, computer);
 
@@ -133,7 +248,7 @@ public class CCEmuX implements Runnable, Emulator {
 		return computer;
 	}
 
-	private void addComputer(EmulatedComputer ec) {
+	private void addComputer(EmulatedComputerImpl ec) {
 		Renderer r = rendererFactory.create(ec, cfg);
 
 		ec.addListener(r);
@@ -142,6 +257,8 @@ public class CCEmuX implements Runnable, Emulator {
 		pluginMgr.onRendererCreated(this, r);
 
 		computers.put(ec, r);
+		awake.add(ec);
+		registerBean(computerBeanName(ec), new ComputerBean(ec, r, profiler));
 
 		r.setVisible(true);
 
@@ -153,14 +270,27 @@ public class CCEmuX implements Runnable, Emulator {
 
 	@Override
 	public boolean removeComputer(@Nonnull EmulatedComputer computer) {
+		if (isTickWorker()) {
+			// The emulator thread holds the computer lock while waiting for the tick pool, so we can't remove the
+			// computer now. Instead, remove it once every computer has been ticked.
+			deferredRemovals.add(computer);
+			return computers.containsKey(computer);
+		}
+
 		synchronized (computers) {
 			try {
 				log.info("Removing computer ID {}", computer.getID());
 
 				Renderer renderer = computers.remove(computer);
+				awake.remove(computer);
 				if (renderer != null) {
 					renderer.dispose();
 					pluginMgr.onComputerRemoved(this, computer);
+					EmulatedComputerImpl removed = (EmulatedComputerImpl) computer;
+					removed.stopRecording();
+					unregisterBean(computerBeanName(removed));
+					removed.getMetricsAggregator().addTo(retiredMetrics);
+					closeIfUnused(removed.context());
 					return true;
 				} else {
 					return false;
@@ -187,53 +317,380 @@ public class CCEmuX implements Runnable, Emulator {
 	}
 
 	private void advance(double dt) {
+		TickEvent event = new TickEvent();
+		event.begin();
+
+		long start = System.nanoTime();
+		profiler.beginTick();
+
 		synchronized (computers) {
-			computers.keySet().forEach(c -> {
-				synchronized (c) {
-					c.tick();
+			boolean idleTracking = this.idleTracking;
+			Collection<EmulatedComputerImpl> targets = idleTracking ? awake : computers.keySet();
+
+			int unwatchedInterval = this.unwatchedTickInterval;
+			if (unwatchedInterval > 1) targets = skipUnwatched(targets, dt, unwatchedInterval);
+
+			ForkJoinPool pool = tickPool;
+			if (pool == null) {
+				for (EmulatedComputerImpl computer : targets) tickComputer(computer, dt);
+			} else {
+				pool.invoke(new ParallelTick(new ArrayList<>(targets), dt));
+			}
+
+			if (idleTracking) {
+				for (EmulatedComputerImpl computer : awake) {
+					if (computer.idleTicks >= IDLE_GRACE_TICKS) sleep(computer);
 				}
-			});
+			}
 		}
 
-		pluginMgr.onTick(this, dt);
+		ticks++;
+
+		EmulatedComputer removed;
+		while ((removed = deferredRemovals.poll()) != null) removeComputer(removed);
+
+		long mainThreadStart = System.nanoTime();
+		mainThreadScheduler.tick();
+		profiler.recordMainThread(System.nanoTime() - mainThreadStart);
+
+		threadMonitor.tick(computers.keySet());
+
+		pluginMgr.onTick(this, dt, profiler::recordPlugin);
+
+		long budget = scheduler.getPeriod();
+		profiler.endTick(System.nanoTime() - start, budget == 0 ? TICK_NANOS : budget, computers.keySet());
+
+		event.end();
+		if (event.shouldCommit()) {
+			event.tick = ticks - 1;
+			event.computers = computers.size();
+			event.commit();
+		}
+	}
+
+	/**
+	 * Find which computers should be ticked this tick, only ticking computers nobody is watching on every
+	 * {@code interval}th tick. When skipped computers are next ticked, CC: Tweaked is ticked once for every tick they
+	 * missed, so their timers keep time, and their peripherals and listeners are given all the time they missed.
+	 */
+	private List<EmulatedComputerImpl> skipUnwatched(Collection<EmulatedComputerImpl> targets, double dt, int interval) {
+		List<EmulatedComputerImpl> due = new ArrayList<>(targets.size());
+		for (EmulatedComputerImpl computer : targets) {
+			Renderer renderer = computers.get(computer);
+			// Offset by the computer's ID, so unwatched computers aren't all ticked at once.
+			if (renderer == null || renderer.isWatched() || (ticks + computer.getID()) % interval == 0) {
+				due.add(computer);
+			} else {
+				computer.skippedTime += dt;
+				computer.skippedTicks++;
+			}
+		}
+		return due;
+	}
+
+	private static void tickComputer(EmulatedComputerImpl computer, double dt) {
+		synchronized (computer) {
+			double elapsed = dt + computer.skippedTime;
+			int missed = computer.skippedTicks;
+			computer.skippedTime = 0;
+			computer.skippedTicks = 0;
+			computer.tick(elapsed, missed);
+		}
+	}
+
+	/**
+	 * Ticks a range of computers, splitting the range in half until each task only ticks a single computer.
+	 */
+	private static final class ParallelTick extends RecursiveAction {
+		private static final long serialVersionUID = 7521938546046711593L;
+
+		private final List<EmulatedComputerImpl> computers;
+		private final int start;
+		private final int end;
+		private final double dt;
+
+		ParallelTick(List<EmulatedComputerImpl> computers, double dt) {
+			this(computers, 0, computers.size(), dt);
+		}
+
+		private ParallelTick(List<EmulatedComputerImpl> computers, int start, int end, double dt) {
+			this.computers = computers;
+			this.start = start;
+			this.end = end;
+			this.dt = dt;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start <= 1) {
+				if (start < end) tickComputer(computers.get(start), dt);
+			} else {
+				int middle = (start + end) >>> 1;
+				invokeAll(new ParallelTick(computers, start, middle, dt), new ParallelTick(computers, middle, end, dt));
+			}
+		}
+	}
+
+	private void sleep(EmulatedComputerImpl computer) {
+		awake.remove(computer);
+		computer.asleep.set(true);
+
+		// If the computer was woken while we were putting it to sleep, wake it up again.
+		if (computer.idleTicks == 0 && computer.asleep.compareAndSet(true, false)) awake.add(computer);
+	}
+
+	/**
+	 * Start ticking a computer again after it has been put to sleep.
+	 */
+	void wake(EmulatedComputerImpl computer) {
+		awake.add(computer);
+
+		// We don't take the computer lock here, so make sure we've not raced with the computer being removed.
+		if (!computers.containsKey(computer)) awake.remove(computer);
+	}
+
+	private void setIdleTracking(boolean enabled) {
+		synchronized (computers) {
+			if (enabled) {
+				for (EmulatedComputerImpl computer : computers.keySet()) {
+					computer.asleep.set(false);
+					computer.idleTicks = 0;
+					awake.add(computer);
+				}
+			}
+
+			idleTracking = enabled;
+		}
+	}
+
+	private boolean isTickWorker() {
+		Thread thread = Thread.currentThread();
+		return thread instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) thread).getPool() == tickPool;
+	}
+
+	private void setTickThreads(int threads) {
+		if (threads <= 0) threads = Runtime.getRuntime().availableProcessors();
+
+		ForkJoinPool old;
+		synchronized (computers) {
+			old = tickPool;
+			if (old == null ? threads <= 1 : old.getParallelism() == threads) return;
+
+			tickPool = threads > 1 ? createTickPool(threads) : null;
+		}
+
+		if (old != null) old.shutdown();
+
+		if (threads > 1) {
+			log.info("Ticking computers on {} threads", threads);
+		} else {
+			log.info("Ticking computers on the emulator thread");
+		}
+	}
+
+	private static ForkJoinPool createTickPool(int threads) {
+		AtomicInteger counter = new AtomicInteger();
+		return new ForkJoinPool(threads, pool -> {
+			ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			thread.setName("CCEmuX-Tick-" + counter.getAndIncrement());
+			return thread;
+		}, null, false);
+	}
+
+	private static int getComputerThreads(UserConfig cfg) {
+		int threads = cfg instanceof UserConfigCCTweaked ? ((UserConfigCCTweaked) cfg).getComputerThreads() : 1;
+		return threads <= 0 ? Runtime.getRuntime().availableProcessors() : threads;
+	}
+
+	private ComputerContext createContext(int threads) {
+		return ComputerContext.builder(new GlobalEnvironmentImpl(this))
+			.computerThreads(threads)
+			.mainThreadScheduler(mainThreadScheduler)
+			.build();
+	}
+
+	/**
+	 * Change the number of threads computers run on. CC: Tweaked can't resize a running context, so this creates a new
+	 * context for any computers created from now on. The old context is closed once its last computer is removed.
+	 */
+	private void setComputerThreads(int threads) {
+		ComputerContext old;
+		synchronized (computers) {
+			if (threads == contextThreads) return;
+
+			old = context;
+			context = createContext(threads);
+			contextThreads = threads;
+			retiredContexts.add(old);
+		}
+
+		log.info("New computers will run on {} threads", threads);
+		closeIfUnused(old);
+	}
+
+	private void closeIfUnused(ComputerContext context) {
+		if (!retiredContexts.contains(context)) return;
+
+		synchronized (computers) {
+			for (EmulatedComputerImpl computer : computers.keySet()) {
+				if (computer.context() == context) return;
+			}
+
+			if (!retiredContexts.remove(context)) return;
+		}
+
+		try {
+			context.ensureClosed(1, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			log.error("Failed to close old computer context", e);
+		}
+	}
+
+	/**
+	 * When running as fast as possible, wait for computers to handle their queued events before advancing the clock.
+	 * Otherwise timers would fire faster than the computers waiting on them could respond.
+	 * <p>
+	 * The number of queued events is only an estimate, so we only wait for a few polls. If it never clears, ticks still
+	 * run far faster than real time rather than falling back to one per {@link #TICK_NANOS}.
+	 */
+	private void awaitIdle() {
+		int polls = 0;
+		while (running && hasPendingWork()) {
+			if (polls++ == IDLE_MAX_POLLS) {
+				if (++idleWaitsTimedOut == IDLE_STUCK_TICKS) {
+					log.warn("Computers have appeared to have queued events for {} ticks, so the estimate may be stuck", IDLE_STUCK_TICKS);
+				}
+				return;
+			}
+
+			LockSupport.parkNanos(this, IDLE_POLL_NANOS);
+		}
+
+		idleWaitsTimedOut = 0;
+	}
+
+	private boolean hasPendingWork() {
+		for (EmulatedComputerImpl computer : computers.keySet()) {
+			if (computer.getPendingEvents() > 0) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Set how fast emulated time runs relative to real time, overriding the speed set in the config until it is next
+	 * changed.
+	 *
+	 * @param speed The speed multiplier, or 0 to run ticks as fast as possible.
+	 */
+	public void setSpeed(double speed) {
+		scheduler.setSpeed(speed);
+		if (speed > 0) {
+			log.info("Running at {}x speed", speed);
+		} else {
+			log.info("Running as fast as possible");
+		}
+	}
+
+	private static String computerBeanName(EmulatedComputerImpl computer) {
+		return MANAGEMENT_DOMAIN + ":type=Computer,id=" + computer.getID();
+	}
+
+	private static void registerBean(String name, Object bean) {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(bean, new ObjectName(name));
+		} catch (InstanceAlreadyExistsException e) {
+			log.warn("Cannot register management bean {}, as it already exists", name);
+		} catch (JMException | SecurityException e) {
+			log.warn("Cannot register management bean {}", name, e);
+		}
+	}
+
+	private static void unregisterBean(String name) {
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(name));
+		} catch (InstanceNotFoundException ignored) {
+		} catch (JMException | SecurityException e) {
+			log.warn("Cannot unregister management bean {}", name, e);
+		}
 	}
 
 	@Override
 	public void run() {
 		running = true;
-		started = System.currentTimeMillis();
+		ticks = 0;
+
+		String emulatorBean = MANAGEMENT_DOMAIN + ":type=Emulator";
+		registerBean(emulatorBean, new EmulatorBean(this));
 
 		// Save the state if we turn on session persistence
 		BiConsumer<Boolean, Boolean> persistSessionListener = (from, to) -> sessionStateChanged();
 		cfg.restoreSession.addListener(persistSessionListener);
 
-		long lastTime = started;
-		double computerTickTimer = 0d;
+		BiConsumer<String, String> catchUpListener = (from, to) -> scheduler.setPolicy(TickScheduler.CatchUpPolicy.parse(to));
+		BiConsumer<Integer, Integer> maxCatchUpListener = (from, to) -> scheduler.setMaxCatchUp(to);
+		cfg.tickCatchUp.addListener(catchUpListener);
+		cfg.maxCatchUpTicks.addListener(maxCatchUpListener);
 
-		while (running) {
-			long now = System.currentTimeMillis();
-			double dt = (now - lastTime) / 1000d;
+		BiConsumer<Double, Double> speedListener = (from, to) -> setSpeed(to);
+		cfg.speed.addListener(speedListener);
 
-			computerTickTimer += dt;
+		BiConsumer<Integer, Integer> mainThreadBudgetListener = (from, to) -> mainThreadScheduler.setGlobalBudget(to);
+		BiConsumer<Integer, Integer> mainThreadComputerBudgetListener = (from, to) -> mainThreadScheduler.setComputerBudget(to);
+		cfg.mainThreadBudget.addListener(mainThreadBudgetListener);
+		cfg.mainThreadComputerBudget.addListener(mainThreadComputerBudgetListener);
 
-			if (computerTickTimer >= 0.05d) {
-				advance(dt);
-				computerTickTimer = 0d;
-			}
+		BiConsumer<Boolean, Boolean> idleTrackingListener = (from, to) -> setIdleTracking(to);
+		cfg.idleTracking.addAndFireListener(idleTrackingListener);
 
-			lastTime = now;
+		BiConsumer<Integer, Integer> unwatchedTickListener = (from, to) -> unwatchedTickInterval = Math.max(1, to);
+		cfg.unwatchedTickInterval.addAndFireListener(unwatchedTickListener);
 
-			try {
-				Thread.sleep(Math.max(0, 50 - (System.currentTimeMillis() - now)));
-			} catch (InterruptedException ignored) {
-			}
+		BiConsumer<Integer, Integer> tickThreadsListener = (from, to) -> setTickThreads(to);
+		cfg.tickThreads.addAndFireListener(tickThreadsListener);
+
+		BiConsumer<Integer, Integer> computerThreadsListener = (from, to) -> setComputerThreads(getComputerThreads(cfg));
+		if (cfg instanceof UserConfigCCTweaked) ((UserConfigCCTweaked) cfg).computerThreads.addListener(computerThreadsListener);
+
+		scheduler.reset();
+		while (running) {
+			scheduler.runDueTicks(this::advance);
+			scheduler.awaitNextTick();
+			if (scheduler.isUnbounded()) awaitIdle();
 		}
 
 		log.info("Emulation stopped");
 
+		for (EmulatedComputerImpl computer : computers.keySet()) computer.stopRecording();
+
 		// Clean up anything we no longer need
 		cfg.restoreSession.removeListener(persistSessionListener);
-		started = -1;
+		cfg.tickCatchUp.removeListener(catchUpListener);
+		cfg.maxCatchUpTicks.removeListener(maxCatchUpListener);
+		cfg.speed.removeListener(speedListener);
+		cfg.idleTracking.removeListener(idleTrackingListener);
+		cfg.unwatchedTickInterval.removeListener(unwatchedTickListener);
+		cfg.mainThreadBudget.removeListener(mainThreadBudgetListener);
+		cfg.mainThreadComputerBudget.removeListener(mainThreadComputerBudgetListener);
+		cfg.tickThreads.removeListener(tickThreadsListener);
+		if (cfg instanceof UserConfigCCTweaked) ((UserConfigCCTweaked) cfg).computerThreads.removeListener(computerThreadsListener);
+		setTickThreads(1);
+		unregisterBean(emulatorBean);
+	}
+
+	@Nonnull
+	@Override
+	public Collection<EmulatedComputerImpl> getComputers() {
+		return Collections.unmodifiableSet(computers.keySet());
+	}
+
+	@Nonnull
+	@Override
+	public Map<String, MetricSnapshot> getMetrics() {
+		Map<String, MetricSnapshot> metrics = new HashMap<>(retiredMetrics.snapshot());
+		for (EmulatedComputerImpl computer : computers.keySet()) MetricsAggregator.merge(metrics, computer.getMetrics());
+		return metrics;
 	}
 
 	@Override
@@ -246,8 +703,40 @@ public class CCEmuX implements Runnable, Emulator {
 		running = false;
 	}
 
+	/**
+	 * The number of ticks run since the emulator started. As ticks may run faster or slower than real time, this
+	 * should be used instead of the wall clock for anything which follows emulated time.
+	 */
 	public long getTicksSinceStart() {
-		return (System.currentTimeMillis() - started) / 50;
+		return ticks;
+	}
+
+	/**
+	 * The scheduler which drives the emulator's ticks
+	 */
+	public TickScheduler getScheduler() {
+		return scheduler;
+	}
+
+	/**
+	 * The monitor which reports on how busy computer threads are
+	 */
+	public ComputerThreadMonitor getThreadMonitor() {
+		return threadMonitor;
+	}
+
+	/**
+	 * The profiler which breaks each tick down into phases
+	 */
+	public TickProfiler getProfiler() {
+		return profiler;
+	}
+
+	/**
+	 * The scheduler which runs computers' main thread tasks
+	 */
+	public MainThreadSchedulerImpl getMainThreadScheduler() {
+		return mainThreadScheduler;
 	}
 
 	public int assignNewID() {
@@ -8,6 +8,7 @@ import java.util.List;
 
 import dan200.computercraft.api.filesystem.FileOperationException;
 import dan200.computercraft.api.filesystem.Mount;
+import net.clgd.ccemux.jfr.MountEvent;
 
 public class ComboMount implements Mount {
 	private final Mount[] mounts;
@@ -32,6 +33,15 @@ public class ComboMount implements Mount {
 
 	@Override
 	public void list(String path, List<String> contents) throws IOException {
+		MountEvent event = begin("list", path);
+		try {
+			event.size = list0(path, contents);
+		} finally {
+			event.commit();
+		}
+	}
+
+	private int list0(String path, List<String> contents) throws IOException {
 		List<String> foundFiles = null;
 		for (var mount : mounts) {
 			if (!mount.isDirectory(path)) continue;
@@ -41,30 +51,63 @@ public class ComboMount implements Mount {
 		}
 
 		if (foundFiles == null) throw new FileOperationException(path, "Not a directory");
+		int size = contents.size();
 		foundFiles.stream().distinct().forEach(contents::add);
+		return contents.size() - size;
 	}
 
 	@Override
 	public long getSize(String path) throws IOException {
-		for (var mount : mounts) {
-			if (mount.exists(path)) return mount.getSize(path);
+		MountEvent event = begin("getSize", path);
+		try {
+			for (var mount : mounts) {
+				if (mount.exists(path)) return event.size = mount.getSize(path);
+			}
+			throw new FileOperationException(path, "No such file");
+		} finally {
+			event.commit();
 		}
-		throw new FileOperationException(path, "No such file");
 	}
 
 	@Override
 	public SeekableByteChannel openForRead(String path) throws IOException {
-		for (var mount : mounts) {
-			if (mount.exists(path)) return mount.openForRead(path);
+		MountEvent event = begin("openForRead", path);
+		try {
+			for (var mount : mounts) {
+				if (mount.exists(path)) {
+					SeekableByteChannel channel = mount.openForRead(path);
+					if (event.isEnabled()) event.size = channel.size();
+					return channel;
+				}
+			}
+			throw new FileOperationException(path, "No such file");
+		} finally {
+			event.commit();
 		}
-		throw new FileOperationException(path, "No such file");
 	}
 
 	@Override
 	public BasicFileAttributes getAttributes(String path) throws IOException {
-		for (var mount : mounts) {
-			if (mount.exists(path)) return mount.getAttributes(path);
+		MountEvent event = begin("getAttributes", path);
+		try {
+			for (var mount : mounts) {
+				if (mount.exists(path)) {
+					BasicFileAttributes attributes = mount.getAttributes(path);
+					event.size = attributes.size();
+					return attributes;
+				}
+			}
+			throw new FileOperationException(path, "No such file");
+		} finally {
+			event.commit();
 		}
-		throw new FileOperationException(path, "No such file");
+	}
+
+	private static MountEvent begin(String operation, String path) {
+		MountEvent event = new MountEvent();
+		event.operation = operation;
+		event.path = path;
+		event.begin();
+		return event;
 	}
 }
@@ -0,0 +1,125 @@
+package net.clgd.ccemux.emulation;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import dan200.computercraft.core.apis.IAPIEnvironment;
+import dan200.computercraft.core.computer.ComputerSide;
+import dan200.computercraft.core.metrics.Metrics;
+import net.clgd.ccemux.api.emulation.EmulatedTerminal;
+import net.clgd.ccemux.api.emulation.MetricSnapshot;
+import net.clgd.ccemux.api.rendering.Renderer;
+
+final class ComputerBean implements ComputerMXBean {
+	private final EmulatedComputerImpl computer;
+	private final Renderer renderer;
+	private final TickProfiler profiler;
+	private final RateSampler frameRate;
+
+	ComputerBean(EmulatedComputerImpl computer, Renderer renderer, TickProfiler profiler) {
+		this.computer = computer;
+		this.renderer = renderer;
+		this.profiler = profiler;
+		this.frameRate = new RateSampler(renderer.getFrameCount());
+	}
+
+	@Override
+	public int getId() {
+		return computer.getID();
+	}
+
+	@Override
+	public String getLabel() {
+		return computer.getLabel();
+	}
+
+	@Override
+	public boolean isOn() {
+		return computer.isOn();
+	}
+
+	@Override
+	public int getEventQueueDepth() {
+		return computer.getPendingEvents();
+	}
+
+	private MetricSnapshot getTasks() {
+		return computer.getMetrics().get(Metrics.COMPUTER_TASKS.name());
+	}
+
+	@Override
+	public long getLuaTime() {
+		MetricSnapshot tasks = getTasks();
+		return tasks == null ? 0 : tasks.getTotal();
+	}
+
+	@Override
+	public long getLuaTasks() {
+		MetricSnapshot tasks = getTasks();
+		return tasks == null ? 0 : tasks.getCount();
+	}
+
+	@Override
+	public Map<String, Long> getTickPhaseP99() {
+		Map<String, Long> result = new TreeMap<>();
+		profiler.getPhaseTimes(computer).forEach((phase, times) -> result.put(phase, times.getPercentile(0.99)));
+		return result;
+	}
+
+	@Override
+	public int getPeripheralCount() {
+		IAPIEnvironment environment = computer.getAPIEnvironment();
+		int count = 0;
+		for (ComputerSide side : ComputerSide.values()) {
+			if (environment.getPeripheral(side) != null) count++;
+		}
+		return count;
+	}
+
+	@Override
+	public double getRendererFrameRate() {
+		long frames = renderer.getFrameCount();
+		return frames < 0 ? -1 : frameRate.sample(frames);
+	}
+
+	@Override
+	public String[] getTerminalText() {
+		EmulatedTerminal terminal = computer.terminal;
+		synchronized (terminal) {
+			String[] lines = new String[terminal.getHeight()];
+			for (int y = 0; y < lines.length; y++) lines[y] = terminal.getLine(y).toString();
+			return lines;
+		}
+	}
+
+	@Override
+	public void paste(String text) {
+		computer.paste(text);
+	}
+
+	@Override
+	public void pressKey(int key) {
+		computer.pressKey(key, false);
+		computer.releaseKey(key);
+	}
+
+	@Override
+	public void terminate() {
+		computer.terminate();
+	}
+
+	@Override
+	public void turnOn() {
+		computer.turnOn();
+	}
+
+	@Override
+	public void shutdown() {
+		computer.shutdown();
+	}
+
+	@Override
+	public void reboot() {
+		computer.reboot();
+	}
+}
@@ -1,12 +1,14 @@
 package net.clgd.ccemux.emulation;
 
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import dan200.computercraft.api.filesystem.WritableMount;
 import dan200.computercraft.core.computer.ComputerEnvironment;
 import dan200.computercraft.core.filesystem.WritableFileMount;
 import dan200.computercraft.core.metrics.Metric;
+import dan200.computercraft.core.metrics.Metrics;
 import dan200.computercraft.core.metrics.MetricsObserver;
 
 class ComputerEnvironmentImpl implements ComputerEnvironment, MetricsObserver {
@@ -14,6 +16,18 @@ class ComputerEnvironmentImpl implements ComputerEnvironment, MetricsObserver {
 	private final int id;
 	private final Supplier<WritableMount> mount;
 
+	/**
+	 * The most events CC: Tweaked will hold in a computer's queue. Any more are dropped.
+	 */
+	private static final int QUEUE_LIMIT = 256;
+
+	/**
+	 * The number of events queued on this computer which have not yet been run.
+	 */
+	private final AtomicInteger pendingEvents = new AtomicInteger();
+
+	private final MetricsAggregator metrics = new MetricsAggregator();
+
 	ComputerEnvironmentImpl(CCEmuX emu, int id, Supplier<WritableMount> mount) {
 		this.emu = emu;
 		this.id = id;
@@ -47,9 +61,31 @@ class ComputerEnvironmentImpl implements ComputerEnvironment, MetricsObserver {
 
 	@Override
 	public void observe(Metric.Counter counter) {
+		metrics.observe(counter);
 	}
 
 	@Override
 	public void observe(Metric.Event event, long value) {
+		metrics.observe(event, value);
+		if (event == Metrics.COMPUTER_TASKS) pendingEvents.getAndUpdate(x -> Math.max(0, x - 1));
+	}
+
+	MetricsAggregator getMetricsAggregator() {
+		return metrics;
+	}
+
+	void eventQueued() {
+		pendingEvents.getAndUpdate(x -> Math.min(QUEUE_LIMIT, x + 1));
+	}
+
+	/**
+	 * Forget any queued events, as CC: Tweaked discards them when the computer is started or stopped.
+	 */
+	void clearPendingEvents() {
+		pendingEvents.set(0);
+	}
+
+	int getPendingEvents() {
+		return pendingEvents.get();
 	}
 }
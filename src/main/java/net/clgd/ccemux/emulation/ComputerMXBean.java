@@ -0,0 +1,87 @@
+package net.clgd.ccemux.emulation;
+
+import java.util.Map;
+
+/**
+ * The management interface for a single computer, registered as {@code net.clgd.ccemux:type=Computer,id=<id>}.
+ * <p>
+ * Durations are given in nanoseconds.
+ */
+public interface ComputerMXBean {
+	int getId();
+
+	String getLabel();
+
+	boolean isOn();
+
+	/**
+	 * The approximate number of events queued on this computer which have not been processed yet.
+	 */
+	int getEventQueueDepth();
+
+	/**
+	 * The total time this computer has spent running Lua code.
+	 */
+	long getLuaTime();
+
+	/**
+	 * The number of tasks (such as handling an event) this computer has run.
+	 */
+	long getLuaTasks();
+
+	/**
+	 * The 99th percentile of time spent in each phase of this computer's recent ticks.
+	 *
+	 * @see TickProfiler.Phase
+	 */
+	Map<String, Long> getTickPhaseP99();
+
+	/**
+	 * The number of peripherals attached to this computer.
+	 */
+	int getPeripheralCount();
+
+	/**
+	 * The number of frames drawn per second by this computer's renderer, measured since this was last read. This is
+	 * -1 if the renderer does not report the frames it draws.
+	 */
+	double getRendererFrameRate();
+
+	/**
+	 * The text on this computer's terminal, one string per row. This works with any renderer, including the headless
+	 * one.
+	 */
+	String[] getTerminalText();
+
+	/**
+	 * Paste a line of text into this computer.
+	 */
+	void paste(String text);
+
+	/**
+	 * Press and release a key.
+	 *
+	 * @param key The key's code, as used by the {@code keys} API.
+	 */
+	void pressKey(int key);
+
+	/**
+	 * Queue a {@code terminate} event.
+	 */
+	void terminate();
+
+	/**
+	 * Turn this computer on, if it is off.
+	 */
+	void turnOn();
+
+	/**
+	 * Shut this computer down, if it is on.
+	 */
+	void shutdown();
+
+	/**
+	 * Shut this computer down and turn it back on again.
+	 */
+	void reboot();
+}
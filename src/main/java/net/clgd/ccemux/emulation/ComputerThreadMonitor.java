@@ -0,0 +1,154 @@
+package net.clgd.ccemux.emulation;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reports how busy the threads which run computers' Lua code are.
+ * <p>
+ * Utilisation is measured from the CPU time of each of CC: Tweaked's computer worker threads. The run queue itself is
+ * internal to CC: Tweaked, so its depth is approximated by counting computers which have events queued that have not
+ * yet been processed.
+ */
+public final class ComputerThreadMonitor {
+	private static final Logger log = LoggerFactory.getLogger(ComputerThreadMonitor.class);
+
+	/**
+	 * The name shared by every computer worker thread.
+	 */
+	private static final String WORKER_NAME = "Computer-Worker";
+
+	private static final long SAMPLE_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+	private static final long REPORT_INTERVAL = TimeUnit.SECONDS.toNanos(30);
+
+	private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+	private final boolean cpuTimeSupported;
+
+	private final Map<Long, Long> lastCpuTime = new HashMap<>();
+	private long lastSample = -1;
+	private long lastReport;
+
+	private volatile Map<String, Double> utilisation = Collections.emptyMap();
+	private volatile int runQueueDepth;
+	private volatile int pendingEvents;
+
+	ComputerThreadMonitor() {
+		boolean supported = threads.isThreadCpuTimeSupported();
+		if (supported && !threads.isThreadCpuTimeEnabled()) {
+			try {
+				threads.setThreadCpuTimeEnabled(true);
+			} catch (UnsupportedOperationException | SecurityException e) {
+				supported = false;
+			}
+		}
+
+		cpuTimeSupported = supported;
+		if (!supported) log.warn("Thread CPU time is not available, computer thread utilisation will not be reported");
+	}
+
+	/**
+	 * Take a new sample if enough time has passed since the last one. This should be called once per tick.
+	 *
+	 * @param computers The computers currently running.
+	 */
+	void tick(@Nonnull Collection<EmulatedComputerImpl> computers) {
+		long now = System.nanoTime();
+		if (lastSample >= 0 && now - lastSample < SAMPLE_INTERVAL) return;
+
+		if (cpuTimeSupported) sampleThreads(now);
+		sampleQueue(computers);
+		lastSample = now;
+
+		if (now - lastReport >= REPORT_INTERVAL && log.isDebugEnabled()) {
+			lastReport = now;
+			log.debug("Computer threads: run queue depth {} ({} pending events), utilisation {}", runQueueDepth, pendingEvents, formatUtilisation());
+		}
+	}
+
+	private void sampleThreads(long now) {
+		long elapsed = now - lastSample;
+		Map<Long, Long> cpuTimes = new HashMap<>();
+		Map<String, Double> utilisation = new TreeMap<>();
+
+		for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds())) {
+			if (info == null || !info.getThreadName().contains(WORKER_NAME)) continue;
+
+			long id = info.getThreadId();
+			long cpuTime = threads.getThreadCpuTime(id);
+			if (cpuTime < 0) continue;
+			cpuTimes.put(id, cpuTime);
+
+			// We need two samples to work out how busy a thread has been.
+			Long previous = lastCpuTime.get(id);
+			if (previous != null && lastSample >= 0 && elapsed > 0) {
+				utilisation.put(info.getThreadName(), Math.min(1, (cpuTime - previous) / (double) elapsed));
+			}
+		}
+
+		lastCpuTime.clear();
+		lastCpuTime.putAll(cpuTimes);
+		this.utilisation = Collections.unmodifiableMap(utilisation);
+	}
+
+	private void sampleQueue(Collection<EmulatedComputerImpl> computers) {
+		int depth = 0, pending = 0;
+		for (EmulatedComputerImpl computer : computers) {
+			int events = computer.getPendingEvents();
+			if (events > 0) {
+				depth++;
+				pending += events;
+			}
+		}
+
+		runQueueDepth = depth;
+		pendingEvents = pending;
+	}
+
+	private String formatUtilisation() {
+		Map<String, Double> utilisation = this.utilisation;
+		if (utilisation.isEmpty()) return "unknown";
+
+		StringBuilder builder = new StringBuilder();
+		utilisation.forEach((name, value) -> {
+			if (builder.length() > 0) builder.append(", ");
+			builder.append(name).append('=').append(Math.round(value * 100)).append('%');
+		});
+		return builder.toString();
+	}
+
+	/**
+	 * The fraction of time each computer worker thread spent running, over the last sample interval.
+	 *
+	 * @return A map of thread names to utilisation, between 0 and 1. This is empty if utilisation can't be measured.
+	 */
+	@Nonnull
+	public Map<String, Double> getUtilisation() {
+		return utilisation;
+	}
+
+	/**
+	 * The approximate number of computers waiting to run on a computer thread.
+	 */
+	public int getRunQueueDepth() {
+		return runQueueDepth;
+	}
+
+	/**
+	 * The approximate number of events queued across all computers, which have not yet been processed.
+	 */
+	public int getPendingEvents() {
+		return pendingEvents;
+	}
+}
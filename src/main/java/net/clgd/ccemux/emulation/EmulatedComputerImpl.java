@@ -1,7 +1,7 @@
 package net.clgd.ccemux.emulation;
 
-import java.awt.*;
-import java.awt.image.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.io.File;
 import java.io.IOException;
 import java.nio.channels.FileChannel;
@@ -13,24 +13,23 @@ import java.time.temporal.ChronoField;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 import javax.annotation.Nonnull;
-import javax.imageio.ImageIO;
+import javax.annotation.Nullable;
 
 import com.google.common.base.Objects;
 import com.google.common.io.ByteStreams;
 import com.google.common.util.concurrent.ListenableFuture;
-import com.google.common.util.concurrent.ListeningExecutorService;
-import com.google.common.util.concurrent.MoreExecutors;
 import dan200.computercraft.api.filesystem.MountConstants;
 import dan200.computercraft.api.filesystem.WritableMount;
 import dan200.computercraft.api.peripheral.IPeripheral;
+import dan200.computercraft.core.ComputerContext;
 import dan200.computercraft.core.apis.IAPIEnvironment;
 import dan200.computercraft.core.apis.handles.ArrayByteChannel;
 import dan200.computercraft.core.apis.transfer.TransferredFile;
@@ -41,8 +40,12 @@ import dan200.computercraft.core.filesystem.FileSystemException;
 import net.clgd.ccemux.Utils;
 import net.clgd.ccemux.api.emulation.EmulatedComputer;
 import net.clgd.ccemux.api.emulation.EmulatedTerminal;
+import net.clgd.ccemux.api.emulation.MetricSnapshot;
+import net.clgd.ccemux.api.rendering.TerminalRasterizer;
+import net.clgd.ccemux.api.rendering.TerminalSnapshot;
+import net.clgd.ccemux.jfr.ScreenshotEvent;
+import net.clgd.ccemux.recording.TerminalRecorder;
 import net.clgd.ccemux.rendering.awt.AWTTerminalFont;
-import net.clgd.ccemux.rendering.awt.TerminalRenderer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,7 +54,6 @@ import org.slf4j.LoggerFactory;
  */
 public class EmulatedComputerImpl extends EmulatedComputer {
 	private static final Logger log = LoggerFactory.getLogger(EmulatedComputerImpl.class);
-	private static final ListeningExecutorService SCREENSHOTS = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
 
 	/**
 	 * A class used to create new {@link EmulatedComputer} instances
@@ -133,13 +135,13 @@ public class EmulatedComputerImpl extends EmulatedComputer {
 		 */
 		@Nonnull
 		@Override
-		public EmulatedComputer build() {
+		public EmulatedComputerImpl build() {
 			if (built.getAndSet(true)) throw new IllegalStateException("This computer has already been built!");
 
 			int id = Optional.ofNullable(this.id).orElse(-1);
 			if (id < 0) id = emu.assignNewID();
 
-			EmulatedComputer ec = new EmulatedComputerImpl(emu, term, id, termScale, rootMount);
+			EmulatedComputerImpl ec = new EmulatedComputerImpl(emu, term, id, termScale, rootMount);
 			ec.setLabel(label);
 			return ec;
 		}
@@ -150,7 +152,7 @@ public class EmulatedComputerImpl extends EmulatedComputer {
 	 *
 	 * @return The new builder
 	 */
-	public static Builder builder(CCEmuX emu, EmulatedTerminal term) {
+	public static BuilderImpl builder(CCEmuX emu, EmulatedTerminal term) {
 		return new BuilderImpl(emu, term);
 	}
 
@@ -161,11 +163,68 @@ public class EmulatedComputerImpl extends EmulatedComputer {
 
 	private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
 
+	/**
+	 * The number of ticks between rescanning this computer's sides for peripherals, in case one was attached without
+	 * us noticing.
+	 */
+	private static final int PERIPHERAL_RESCAN_TICKS = 20;
+
+	/**
+	 * The attached peripherals which implement {@link Listener}, advanced every tick. This is rebuilt by
+	 * {@link #scanPeripherals()} on the tick thread.
+	 */
+	private Listener[] peripheralListeners = new Listener[0];
+	private int ticksSinceScan;
+
+	/**
+	 * Set when a peripheral may have been attached or detached, so the next tick rescans this computer's sides.
+	 */
+	private volatile boolean peripheralsChanged = true;
+
 	private final double termScale;
 
+	/**
+	 * The context this computer runs in. This may no longer be the emulator's current context, if the number of
+	 * computer threads has changed since this computer was created.
+	 */
+	private final ComputerContext context;
+
+	private final ComputerEnvironmentImpl environment;
+
+	/**
+	 * Whether the emulator has stopped ticking this computer, as it is idle.
+	 */
+	final AtomicBoolean asleep = new AtomicBoolean();
+
+	/**
+	 * The number of consecutive ticks this computer has been idle for.
+	 */
+	volatile int idleTicks;
+
+	/**
+	 * The time and number of ticks which have passed since this computer was last ticked, while it is ticked less
+	 * often as nobody is watching it. These are only used by the emulator while holding the computer's lock.
+	 */
+	double skippedTime;
+	int skippedTicks;
+
+	final TickProfiler.ComputerTimings timings = new TickProfiler.ComputerTimings();
+
+	/**
+	 * The recording in progress, if any. This is only changed while holding {@link #recordingLock}.
+	 */
+	private volatile TerminalRecorder recorder;
+	private final Object recordingLock = new Object();
+
 	private EmulatedComputerImpl(CCEmuX emulator, EmulatedTerminal terminal, int id, double termScale, Supplier<WritableMount> mount) {
-		super(emulator.context(), new ComputerEnvironmentImpl(emulator, id, mount), terminal, id);
+		this(emulator, emulator.context(), new ComputerEnvironmentImpl(emulator, id, mount), terminal, id, termScale);
+	}
+
+	private EmulatedComputerImpl(CCEmuX emulator, ComputerContext context, ComputerEnvironmentImpl environment, EmulatedTerminal terminal, int id, double termScale) {
+		super(context, environment, terminal, id);
 		this.emulator = emulator;
+		this.context = context;
+		this.environment = environment;
 		this.termScale = termScale;
 	}
 
@@ -186,15 +245,145 @@ public class EmulatedComputerImpl extends EmulatedComputer {
 
 	@Override
 	public void tick() {
+		tick(CCEmuX.TICK_LENGTH);
+	}
+
+	/**
+	 * Tick this computer, along with any peripherals and listeners attached to it.
+	 *
+	 * @param dt The time since the last tick, in seconds.
+	 */
+	public void tick(double dt) {
+		tick(dt, 0);
+	}
+
+	/**
+	 * Tick this computer after it has missed some ticks. CC: Tweaked is ticked once for each missed tick, so timers and
+	 * {@code os.clock()} keep time, but peripherals and listeners are only advanced once, by the whole time.
+	 *
+	 * @param dt          The time since the last tick, in seconds, including any missed ticks.
+	 * @param missedTicks The number of ticks missed since this computer was last ticked.
+	 */
+	void tick(double dt, int missedTicks) {
+		long start = System.nanoTime();
+		for (int i = 0; i < missedTicks; i++) super.tick();
 		super.tick();
+		long ticked = System.nanoTime();
+
+		if (peripheralsChanged || ++ticksSinceScan >= PERIPHERAL_RESCAN_TICKS) scanPeripherals();
+		for (Listener peripheral : peripheralListeners) peripheral.onAdvance(dt);
+		long peripherals = System.nanoTime();
+
+		for (Listener listener : listeners) listener.onAdvance(dt);
+
+		TerminalRecorder recorder = this.recorder;
+		if (recorder != null) {
+			try {
+				recorder.record(emulator.getTicksSinceStart());
+			} catch (IOException e) {
+				log.error("Cannot record terminal, stopping recording", e);
+				stopRecording();
+			}
+		}
+		long end = System.nanoTime();
+
+		emulator.getProfiler().recordComputer(this, ticked - start, peripherals - ticked, end - peripherals);
+
+		idleTicks = isIdle() ? idleTicks + 1 : 0;
+	}
+
+	/**
+	 * Whether this computer has nothing to do. A computer which is on may be waiting on a timer, which CC: Tweaked
+	 * only counts down while it is ticked, so only computers which are off can be idle.
+	 */
+	private boolean isIdle() {
+		return !isOn() && getPendingEvents() == 0;
+	}
+
+	@Override
+	public void wake() {
+		idleTicks = 0;
+		if (asleep.compareAndSet(true, false)) emulator.wake(this);
+	}
+
+	@Override
+	public void setPeripheral(@Nonnull ComputerSide side, @Nullable IPeripheral peripheral) {
+		super.setPeripheral(side, peripheral);
+		peripheralsChanged = true;
+	}
+
+	/**
+	 * Find the attached peripherals which need to be advanced every tick.
+	 * <p>
+	 * Peripherals may be attached through {@link #getEnvironment()} rather than {@link #setPeripheral(ComputerSide,
+	 * IPeripheral)}. CC: Tweaked queues a {@code peripheral} or {@code peripheral_detach} event when that happens on a
+	 * computer which is on, which also triggers a rescan. Otherwise, they are found by the next periodic rescan.
+	 */
+	private void scanPeripherals() {
+		peripheralsChanged = false;
+		ticksSinceScan = 0;
 
 		IAPIEnvironment environment = getAPIEnvironment();
+		List<Listener> found = new ArrayList<>(0);
 		for (ComputerSide side : ComputerSide.values()) {
 			IPeripheral peripheral = environment.getPeripheral(side);
-			if (peripheral instanceof Listener) ((Listener) peripheral).onAdvance(0.05);
+			if (peripheral instanceof Listener) found.add((Listener) peripheral);
 		}
 
-		listeners.forEach(l -> l.onAdvance(0.05));
+		if (!found.equals(Arrays.asList(peripheralListeners))) peripheralListeners = found.toArray(new Listener[0]);
+	}
+
+	@Override
+	public void turnOn() {
+		environment.clearPendingEvents();
+		wake();
+		super.turnOn();
+	}
+
+	@Override
+	public void shutdown() {
+		environment.clearPendingEvents();
+		wake();
+		super.shutdown();
+	}
+
+	@Override
+	public void reboot() {
+		environment.clearPendingEvents();
+		wake();
+		super.reboot();
+	}
+
+	@Override
+	public void queueEvent(String event, Object[] args) {
+		if ("peripheral".equals(event) || "peripheral_detach".equals(event)) peripheralsChanged = true;
+
+		// CC: Tweaked drops events queued while the computer is off, so they will never be run.
+		if (isOn()) environment.eventQueued();
+		wake();
+		super.queueEvent(event, args);
+	}
+
+	/**
+	 * The number of events queued on this computer which have not been processed yet. This is only an estimate, as the
+	 * computer's event queue is not exposed by CC: Tweaked.
+	 */
+	int getPendingEvents() {
+		return environment.getPendingEvents();
+	}
+
+	@Nonnull
+	@Override
+	public Map<String, MetricSnapshot> getMetrics() {
+		return environment.getMetricsAggregator().snapshot();
+	}
+
+	MetricsAggregator getMetricsAggregator() {
+		return environment.getMetricsAggregator();
+	}
+
+	ComputerContext context() {
+		return context;
 	}
 
 	@Override
@@ -247,38 +436,108 @@ public class EmulatedComputerImpl extends EmulatedComputer {
 	@Nonnull
 	@Override
 	public ListenableFuture<File> screenshot() {
-		return SCREENSHOTS.submit(() -> {
+		// Only copying the terminal needs its lock: drawing and encoding it happen in the background.
+		TerminalSnapshot snapshot = new TerminalSnapshot();
+		synchronized (terminal) {
+			snapshot.capture(terminal);
+		}
+
+		int compression = emulator.getConfig().screenshotCompression.get();
+		return ScreenshotWriter.submit(() -> {
+			// Begin the event on the thread which ends and commits it, so it only covers drawing and encoding.
+			ScreenshotEvent event = new ScreenshotEvent();
+			event.begin();
+
 			Path screenshotDir = emulator.getConfig().getDataDir().resolve("screenshots");
 			Files.createDirectories(screenshotDir);
 
-			LocalDateTime instant = LocalDateTime.now();
-			File file = Utils.createUniqueFile(screenshotDir.toFile(), String.format("%04d-%02d-%02d-%02d_%02d_%02d",
-				instant.get(ChronoField.YEAR), instant.get(ChronoField.MONTH_OF_YEAR), instant.get(ChronoField.DAY_OF_MONTH),
-				instant.get(ChronoField.HOUR_OF_DAY), instant.get(ChronoField.MINUTE_OF_HOUR), instant.get(ChronoField.SECOND_OF_MINUTE)
-			), ".png");
+			File file = Utils.createUniqueFile(screenshotDir.toFile(), timestamp(), ".png");
+
+			AWTTerminalFont font = AWTTerminalFont.getBestFont();
+			TerminalRasterizer rasterizer = new TerminalRasterizer(
+				font.getAtlas((int) (6 * termScale), (int) (9 * termScale)), (int) (2 * termScale));
 
-			AWTTerminalFont font = AWTTerminalFont.getBest(AWTTerminalFont::new);
-			TerminalRenderer renderer = new TerminalRenderer(terminal, termScale);
+			BufferedImage image = ScreenshotWriter.acquire(rasterizer.getWidth(snapshot), rasterizer.getHeight(snapshot));
 			try {
-				synchronized (terminal) {
-					Dimension dimension = renderer.getSize();
-					BufferedImage image = new BufferedImage(dimension.width, dimension.height, BufferedImage.TYPE_3BYTE_BGR);
+				rasterizer.rasterize(snapshot, ((DataBufferInt) image.getRaster().getDataBuffer()).getData());
+				ScreenshotWriter.write(image, file, compression);
 
-					Graphics graphics = image.getGraphics();
-					renderer.render(font, graphics);
-					graphics.dispose();
+				event.width = image.getWidth();
+				event.height = image.getHeight();
+			} catch (IOException e) {
+				file.delete();
+				throw e;
+			} finally {
+				ScreenshotWriter.release(image);
+			}
 
-					ImageIO.write(image, "png", file);
-				}
+			event.end();
+			if (event.shouldCommit()) {
+				event.computerId = getID();
+				event.bytes = file.length();
+				event.commit();
+			}
 
-				log.info("Saved screenshot to {}", file.getAbsolutePath());
+			log.info("Saved screenshot to {}", file.getAbsolutePath());
 
-				return file;
+			return file;
+		});
+	}
+
+	@Nonnull
+	@Override
+	public File startRecording() throws IOException {
+		synchronized (recordingLock) {
+			TerminalRecorder recorder = this.recorder;
+			if (recorder != null) return recorder.getFile();
+
+			Path recordingDir = emulator.getConfig().getDataDir().resolve("recordings");
+			Files.createDirectories(recordingDir);
+
+			File file = Utils.createUniqueFile(recordingDir.toFile(), timestamp(), TerminalRecorder.EXTENSION);
+			try {
+				this.recorder = new TerminalRecorder(terminal, termScale, file, emulator.getTicksSinceStart());
 			} catch (IOException e) {
 				file.delete();
 				throw e;
 			}
-		});
+
+			log.info("Recording computer ID {} to {}", getID(), file.getAbsolutePath());
+			return file;
+		}
+	}
+
+	@Nullable
+	@Override
+	public File stopRecording() {
+		TerminalRecorder recorder;
+		synchronized (recordingLock) {
+			recorder = this.recorder;
+			if (recorder == null) return null;
+			this.recorder = null;
+		}
+
+		try {
+			recorder.close();
+		} catch (IOException e) {
+			log.error("Cannot finish recording {}", recorder.getFile().getAbsolutePath(), e);
+		}
+
+		log.info("Saved recording to {}", recorder.getFile().getAbsolutePath());
+		return recorder.getFile();
+	}
+
+	@Override
+	public boolean isRecording() {
+		return recorder != null;
+	}
+
+	private static String timestamp() {
+		LocalDateTime instant = LocalDateTime.now();
+		return String.format("%04d-%02d-%02d-%02d_%02d_%02d",
+			instant.get(ChronoField.YEAR), instant.get(ChronoField.MONTH_OF_YEAR), instant.get(ChronoField.DAY_OF_MONTH),
+			instant.get(ChronoField.HOUR_OF_DAY), instant.get(ChronoField.MINUTE_OF_HOUR), instant.get(ChronoField.SECOND_OF_MINUTE)
+		);
 	}
 
 	@Override
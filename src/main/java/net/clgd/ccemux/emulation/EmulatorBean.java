@@ -0,0 +1,109 @@
+package net.clgd.ccemux.emulation;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+final class EmulatorBean implements EmulatorMXBean {
+	private final CCEmuX emu;
+	private final RateSampler tickRate;
+
+	EmulatorBean(CCEmuX emu) {
+		this.emu = emu;
+		this.tickRate = new RateSampler(emu.getScheduler().getTicks());
+	}
+
+	@Override
+	public String getVersion() {
+		return emu.getEmulatorVersion();
+	}
+
+	@Override
+	public int getComputerCount() {
+		return emu.getComputers().size();
+	}
+
+	@Override
+	public double getTickRate() {
+		return tickRate.sample(emu.getScheduler().getTicks());
+	}
+
+	@Override
+	public double getTargetTickRate() {
+		long period = emu.getScheduler().getPeriod();
+		return period == 0 ? 0 : 1e9 / period;
+	}
+
+	@Override
+	public long getTicks() {
+		return emu.getScheduler().getTicks();
+	}
+
+	@Override
+	public long getOverrunTicks() {
+		return emu.getScheduler().getOverruns();
+	}
+
+	@Override
+	public long getSkippedTicks() {
+		return emu.getScheduler().getSkipped();
+	}
+
+	@Override
+	public long getLastTickDuration() {
+		return emu.getScheduler().getLastDuration();
+	}
+
+	@Override
+	public double getMeanTickDuration() {
+		return emu.getScheduler().getDurations().getMean();
+	}
+
+	@Override
+	public long getTickDurationP50() {
+		return emu.getScheduler().getDurations().getPercentile(0.5);
+	}
+
+	@Override
+	public long getTickDurationP90() {
+		return emu.getScheduler().getDurations().getPercentile(0.9);
+	}
+
+	@Override
+	public long getTickDurationP99() {
+		return emu.getScheduler().getDurations().getPercentile(0.99);
+	}
+
+	@Override
+	public long getMaxTickDuration() {
+		return emu.getScheduler().getDurations().getMax();
+	}
+
+	@Override
+	public Map<String, Long> getTickPhaseP99() {
+		Map<String, Long> result = new TreeMap<>();
+		emu.getProfiler().getPhaseTimes().forEach((phase, times) -> result.put(phase, times.getPercentile(0.99)));
+		return result;
+	}
+
+	@Override
+	public Map<String, Long> getPluginTickP99() {
+		Map<String, Long> result = new TreeMap<>();
+		emu.getProfiler().getPluginTimes().forEach((plugin, times) -> result.put(plugin, times.getPercentile(0.99)));
+		return result;
+	}
+
+	@Override
+	public Map<String, Long> getPluginHookTimes() {
+		return emu.getPluginMgr().getHookTimes();
+	}
+
+	@Override
+	public int getMainThreadQueueLength() {
+		return emu.getMainThreadScheduler().getQueueLength();
+	}
+
+	@Override
+	public int getComputerRunQueueDepth() {
+		return emu.getThreadMonitor().getRunQueueDepth();
+	}
+}
@@ -0,0 +1,66 @@
+package net.clgd.ccemux.emulation;
+
+import java.util.Map;
+
+/**
+ * The management interface for a running emulator, registered as {@code net.clgd.ccemux:type=Emulator}.
+ * <p>
+ * Durations are given in nanoseconds.
+ */
+public interface EmulatorMXBean {
+	String getVersion();
+
+	int getComputerCount();
+
+	/**
+	 * The number of ticks run per second, measured since this was last read.
+	 */
+	double getTickRate();
+
+	/**
+	 * The number of ticks the emulator aims to run each second, or 0 if it is running as fast as possible.
+	 */
+	double getTargetTickRate();
+
+	long getTicks();
+
+	long getOverrunTicks();
+
+	long getSkippedTicks();
+
+	long getLastTickDuration();
+
+	double getMeanTickDuration();
+
+	long getTickDurationP50();
+
+	long getTickDurationP90();
+
+	long getTickDurationP99();
+
+	long getMaxTickDuration();
+
+	/**
+	 * The 99th percentile of time spent in each phase of recent ticks.
+	 *
+	 * @see TickProfiler.Phase
+	 */
+	Map<String, Long> getTickPhaseP99();
+
+	/**
+	 * The 99th percentile of time each plugin's tick hooks have taken over recent ticks.
+	 */
+	Map<String, Long> getPluginTickP99();
+
+	/**
+	 * The total time spent running each type of plugin hook.
+	 */
+	Map<String, Long> getPluginHookTimes();
+
+	int getMainThreadQueueLength();
+
+	/**
+	 * The approximate number of computers waiting to run on a computer thread.
+	 */
+	int getComputerRunQueueDepth();
+}
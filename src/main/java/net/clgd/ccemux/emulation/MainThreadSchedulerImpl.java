@@ -0,0 +1,238 @@
+package net.clgd.ccemux.emulation;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+
+import dan200.computercraft.core.computer.mainthread.MainThreadScheduler;
+import dan200.computercraft.core.metrics.Metrics;
+import dan200.computercraft.core.metrics.MetricsObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs main-thread tasks (such as {@code @LuaFunction(mainThread = true)} peripheral methods) on the emulator thread.
+ * <p>
+ * Tasks are run once per tick by {@link #tick()}, under a global time budget. Each computer also has its own budget,
+ * and computers take turns running a single task, so one busy computer can't starve the others. Any time a computer
+ * spends over its budget is carried over as debt into the following ticks, and tasks which didn't fit into a tick are
+ * left queued for the next one.
+ */
+public final class MainThreadSchedulerImpl implements MainThreadScheduler {
+	private static final Logger log = LoggerFactory.getLogger(MainThreadSchedulerImpl.class);
+
+	/**
+	 * The maximum number of tasks a single computer may have queued.
+	 */
+	private static final int MAX_TASKS = 5000;
+
+	private final Object lock = new Object();
+
+	/**
+	 * Executors which have tasks queued and time left in their budget, in the order they should be run.
+	 */
+	private final ArrayDeque<ExecutorImpl> ready = new ArrayDeque<>();
+
+	/**
+	 * Executors which have tasks queued but have run out of budget.
+	 */
+	private final ArrayDeque<ExecutorImpl> cooling = new ArrayDeque<>();
+
+	private volatile long globalBudget;
+	private volatile long computerBudget;
+
+	/**
+	 * The time at which the current tick's budget runs out, or {@link Long#MIN_VALUE} if we're not running tasks.
+	 */
+	private volatile long deadline = Long.MIN_VALUE;
+
+	private final AtomicInteger queueLength = new AtomicInteger();
+	private volatile long tasksRun;
+	private volatile long overruns;
+	private volatile long backlogTicks;
+
+	/**
+	 * Create a new scheduler.
+	 *
+	 * @param globalBudget   The time all tasks may run for in a single tick, in milliseconds.
+	 * @param computerBudget The time a single computer's tasks may run for in a single tick, in milliseconds.
+	 */
+	public MainThreadSchedulerImpl(int globalBudget, int computerBudget) {
+		setGlobalBudget(globalBudget);
+		setComputerBudget(computerBudget);
+	}
+
+	public void setGlobalBudget(int millis) {
+		globalBudget = TimeUnit.MILLISECONDS.toNanos(Math.max(1, millis));
+	}
+
+	public void setComputerBudget(int millis) {
+		computerBudget = TimeUnit.MILLISECONDS.toNanos(Math.max(1, millis));
+	}
+
+	@Nonnull
+	@Override
+	public Executor createExecutor(@Nonnull MetricsObserver observer) {
+		return new ExecutorImpl(observer);
+	}
+
+	/**
+	 * Run queued tasks until they have all been run, or this tick's budget runs out.
+	 */
+	void tick() {
+		long computerBudget = this.computerBudget;
+		long start = System.nanoTime();
+		long deadline = start + globalBudget;
+
+		synchronized (lock) {
+			// Give every computer which ran out of time its budget for this tick. Computers which are still in debt
+			// after that sit this tick out.
+			for (int i = cooling.size(); i > 0; i--) {
+				ExecutorImpl executor = cooling.poll();
+				executor.budget = Math.min(computerBudget, executor.budget + computerBudget);
+				(executor.budget > 0 ? ready : cooling).add(executor);
+			}
+			for (ExecutorImpl executor : ready) executor.budget = computerBudget;
+		}
+
+		this.deadline = deadline;
+		try {
+			long now = start;
+			while (now < deadline) {
+				ExecutorImpl executor;
+				synchronized (lock) {
+					executor = ready.poll();
+				}
+				if (executor == null) break;
+
+				executor.runTask();
+				now = System.nanoTime();
+			}
+
+			if (now - start > globalBudget) {
+				overruns++;
+				log.trace("Main thread tasks overran their budget, taking {}ms", TimeUnit.NANOSECONDS.toMillis(now - start));
+			}
+		} finally {
+			this.deadline = Long.MIN_VALUE;
+		}
+
+		if (queueLength.get() > 0) backlogTicks++;
+	}
+
+	/**
+	 * The number of tasks waiting to be run, across all computers.
+	 */
+	public int getQueueLength() {
+		return queueLength.get();
+	}
+
+	/**
+	 * The total number of tasks which have been run.
+	 */
+	public long getTasksRun() {
+		return tasksRun;
+	}
+
+	/**
+	 * The number of ticks where running tasks took longer than the global budget.
+	 */
+	public long getOverruns() {
+		return overruns;
+	}
+
+	/**
+	 * The number of ticks which finished with tasks still waiting to be run.
+	 */
+	public long getBacklogTicks() {
+		return backlogTicks;
+	}
+
+	private final class ExecutorImpl implements MainThreadScheduler.Executor {
+		private final MetricsObserver observer;
+
+		/**
+		 * The tasks waiting to be run. This is guarded by the scheduler's lock.
+		 */
+		private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+		/**
+		 * Whether this executor is in either the ready or cooling queue. This is guarded by the scheduler's lock.
+		 */
+		private boolean queued;
+
+		/**
+		 * The time this computer may still spend running tasks this tick, in nanoseconds. This becomes negative if
+		 * the computer overran its budget.
+		 */
+		private volatile long budget;
+
+		ExecutorImpl(MetricsObserver observer) {
+			this.observer = observer;
+			this.budget = computerBudget;
+		}
+
+		@Override
+		public boolean enqueue(@Nonnull Runnable task) {
+			synchronized (lock) {
+				if (tasks.size() >= MAX_TASKS) return false;
+
+				tasks.add(task);
+				queueLength.incrementAndGet();
+				if (!queued) {
+					queued = true;
+					(budget > 0 ? ready : cooling).add(this);
+				}
+			}
+
+			return true;
+		}
+
+		void runTask() {
+			Runnable task;
+			synchronized (lock) {
+				task = tasks.poll();
+			}
+			if (task == null) return;
+
+			queueLength.decrementAndGet();
+
+			long start = System.nanoTime();
+			try {
+				task.run();
+			} catch (RuntimeException e) {
+				log.error("Error running main thread task", e);
+			}
+			long duration = System.nanoTime() - start;
+
+			tasksRun++;
+			observer.observe(Metrics.SERVER_TASKS, duration);
+			budget -= duration;
+
+			synchronized (lock) {
+				if (tasks.isEmpty()) {
+					queued = false;
+				} else {
+					(budget > 0 ? ready : cooling).add(this);
+				}
+			}
+		}
+
+		@Override
+		public boolean canWork() {
+			return budget > 0;
+		}
+
+		@Override
+		public boolean shouldWork() {
+			return budget > 0 && System.nanoTime() < deadline;
+		}
+
+		@Override
+		public void trackWork(long time, @Nonnull TimeUnit unit) {
+			budget -= unit.toNanos(time);
+		}
+	}
+}
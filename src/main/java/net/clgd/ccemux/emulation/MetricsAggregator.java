@@ -0,0 +1,128 @@
+package net.clgd.ccemux.emulation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.annotation.Nonnull;
+
+import dan200.computercraft.core.metrics.Metric;
+import dan200.computercraft.core.metrics.MetricsObserver;
+import net.clgd.ccemux.api.emulation.MetricSnapshot;
+
+/**
+ * Collects ComputerCraft's metrics for a single computer.
+ * <p>
+ * Observing a metric is lock-free and does not allocate: every value lives in a fixed slot of an atomic array, indexed
+ * by the metric's id. Reading the metrics back (with {@link #snapshot()}) is comparatively expensive, and should only
+ * be done on demand.
+ */
+public final class MetricsAggregator implements MetricsObserver {
+	/**
+	 * The number of metrics we have room for. Metrics with a larger id are ignored.
+	 */
+	static final int MAX_METRICS = 64;
+
+	private static final int COUNT = 0;
+	private static final int TOTAL = 1;
+	private static final int MAX = 2;
+	private static final int BUCKETS = 3;
+	private static final int STRIDE = BUCKETS + MetricSnapshot.BUCKETS;
+
+	private final AtomicReferenceArray<Metric> metrics = new AtomicReferenceArray<>(MAX_METRICS);
+	private final AtomicLongArray counters = new AtomicLongArray(MAX_METRICS);
+	private final AtomicLongArray events = new AtomicLongArray(MAX_METRICS * STRIDE);
+
+	@Override
+	public void observe(Metric.Counter counter) {
+		int id = counter.id();
+		if (id < 0 || id >= MAX_METRICS) return;
+
+		register(id, counter);
+		counters.incrementAndGet(id);
+	}
+
+	@Override
+	public void observe(Metric.Event event, long value) {
+		int id = event.id();
+		if (id < 0 || id >= MAX_METRICS) return;
+
+		register(id, event);
+		int base = id * STRIDE;
+		events.incrementAndGet(base + COUNT);
+		events.addAndGet(base + TOTAL, value);
+		updateMax(base + MAX, value);
+		events.incrementAndGet(base + BUCKETS + MetricSnapshot.bucket(value));
+	}
+
+	private void register(int id, Metric metric) {
+		if (metrics.get(id) == null) metrics.compareAndSet(id, null, metric);
+	}
+
+	private void updateMax(int index, long value) {
+		long current;
+		while (value > (current = events.get(index))) {
+			if (events.compareAndSet(index, current, value)) return;
+		}
+	}
+
+	/**
+	 * Add every metric observed by this aggregator to another one. This is used to keep a running total of computers
+	 * which have been removed.
+	 *
+	 * @param other The aggregator to add to.
+	 */
+	void addTo(@Nonnull MetricsAggregator other) {
+		for (int id = 0; id < MAX_METRICS; id++) {
+			Metric metric = metrics.get(id);
+			if (metric == null) continue;
+
+			other.register(id, metric);
+			other.counters.addAndGet(id, counters.get(id));
+
+			int base = id * STRIDE;
+			other.events.addAndGet(base + COUNT, events.get(base + COUNT));
+			other.events.addAndGet(base + TOTAL, events.get(base + TOTAL));
+			other.updateMax(base + MAX, events.get(base + MAX));
+			for (int i = BUCKETS; i < STRIDE; i++) other.events.addAndGet(base + i, events.get(base + i));
+		}
+	}
+
+	/**
+	 * Take a snapshot of every metric which has been observed.
+	 *
+	 * @return The current value of each metric, keyed by name.
+	 */
+	@Nonnull
+	public Map<String, MetricSnapshot> snapshot() {
+		Map<String, MetricSnapshot> snapshot = new HashMap<>();
+		for (int id = 0; id < MAX_METRICS; id++) {
+			Metric metric = metrics.get(id);
+			if (metric == null) continue;
+
+			if (metric instanceof Metric.Event) {
+				int base = id * STRIDE;
+				long[] buckets = new long[MetricSnapshot.BUCKETS];
+				for (int i = 0; i < buckets.length; i++) buckets[i] = events.get(base + BUCKETS + i);
+
+				snapshot.put(metric.name(), new MetricSnapshot(metric.name(), metric.unit(),
+					events.get(base + COUNT), events.get(base + TOTAL), events.get(base + MAX), buckets));
+			} else {
+				snapshot.put(metric.name(), new MetricSnapshot(metric.name(), counters.get(id)));
+			}
+		}
+
+		return snapshot;
+	}
+
+	/**
+	 * Merge one set of snapshots into another.
+	 *
+	 * @param into The snapshots to merge into.
+	 * @param from The snapshots to merge from.
+	 */
+	static void merge(@Nonnull Map<String, MetricSnapshot> into, @Nonnull Map<String, MetricSnapshot> from) {
+		for (MetricSnapshot snapshot : from.values()) into.merge(snapshot.getName(), snapshot, MetricSnapshot::merge);
+	}
+}
@@ -0,0 +1,39 @@
+package net.clgd.ccemux.emulation;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how quickly a counter increases, such as the number of ticks run or frames drawn.
+ */
+final class RateSampler {
+	/**
+	 * The minimum time between two samples. Reading the rate more often than this returns the previous rate.
+	 */
+	private static final long MIN_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+	private long lastTime;
+	private long lastCount;
+	private double rate;
+
+	RateSampler(long count) {
+		lastTime = System.nanoTime();
+		lastCount = count;
+	}
+
+	/**
+	 * Get the rate the counter has increased at since the last sample.
+	 *
+	 * @param count The current value of the counter.
+	 * @return The rate, per second.
+	 */
+	synchronized double sample(long count) {
+		long now = System.nanoTime();
+		if (now - lastTime >= MIN_INTERVAL) {
+			rate = (count - lastCount) * 1e9 / (now - lastTime);
+			lastTime = now;
+			lastCount = count;
+		}
+
+		return rate;
+	}
+}
@@ -0,0 +1,133 @@
+package net.clgd.ccemux.emulation;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Encodes screenshots in the background, so that taking one only holds the terminal's lock long enough to copy it.
+ * <p>
+ * Encoding happens on a small pool of threads with a bounded queue: once too many screenshots are waiting to be
+ * written, further ones fail straight away rather than piling up. The images they are drawn into are reused between
+ * screenshots of the same size.
+ */
+final class ScreenshotWriter {
+	private static final int THREADS = 2;
+	private static final int MAX_QUEUED = 16;
+	private static final int MAX_POOLED_IMAGES = 4;
+
+	private static final ListeningExecutorService executor;
+
+	static {
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(
+			THREADS, THREADS, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(MAX_QUEUED),
+			new ThreadFactoryBuilder().setNameFormat("CCEmuX-Screenshot-%d").setDaemon(true).build()
+		);
+		pool.allowCoreThreadTimeOut(true);
+		executor = MoreExecutors.listeningDecorator(pool);
+	}
+
+	/**
+	 * Images which are no longer in use. This is guarded by itself.
+	 */
+	private static final Deque<BufferedImage> images = new ArrayDeque<>();
+
+	private ScreenshotWriter() {
+	}
+
+	/**
+	 * Run a screenshot task in the background.
+	 *
+	 * @param task The task to run.
+	 * @return The task's result, which fails if too many screenshots are already waiting to be written.
+	 */
+	@Nonnull
+	static ListenableFuture<File> submit(@Nonnull Callable<File> task) {
+		try {
+			return executor.submit(task);
+		} catch (RejectedExecutionException e) {
+			return Futures.immediateFailedFuture(new IOException("Too many screenshots are already being saved", e));
+		}
+	}
+
+	/**
+	 * Get an image to draw a screenshot into, reusing a previous one if possible. Its contents are undefined.
+	 *
+	 * @param width  The width of the image.
+	 * @param height The height of the image.
+	 * @return An RGB image backed by an {@code int[]}, which should be given back with {@link #release(BufferedImage)}.
+	 */
+	@Nonnull
+	static BufferedImage acquire(int width, int height) {
+		synchronized (images) {
+			for (Iterator<BufferedImage> it = images.iterator(); it.hasNext(); ) {
+				BufferedImage image = it.next();
+				if (image.getWidth() == width && image.getHeight() == height) {
+					it.remove();
+					return image;
+				}
+			}
+		}
+
+		return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+	}
+
+	/**
+	 * Give back an image once it has been written, so it can be used for another screenshot.
+	 *
+	 * @param image The image to reuse.
+	 */
+	static void release(@Nonnull BufferedImage image) {
+		synchronized (images) {
+			images.addFirst(image);
+			if (images.size() > MAX_POOLED_IMAGES) images.removeLast();
+		}
+	}
+
+	/**
+	 * Write an image to a PNG file.
+	 *
+	 * @param image       The image to write.
+	 * @param file        The file to write to.
+	 * @param compression The zlib compression level, from 0 (fastest) to 9 (smallest), or -1 to use the default.
+	 * @throws IOException If the file could not be written.
+	 */
+	static void write(@Nonnull BufferedImage image, @Nonnull File file, int compression) throws IOException {
+		ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+		try (ImageOutputStream stream = ImageIO.createImageOutputStream(file)) {
+			if (stream == null) throw new IOException("Cannot write to " + file);
+
+			ImageWriteParam param = writer.getDefaultWriteParam();
+			if (compression >= 0 && param.canWriteCompressed()) {
+				param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+				param.setCompressionQuality(1 - Math.min(compression, 9) / 9.0f);
+			}
+
+			writer.setOutput(stream);
+			writer.write(null, new IIOImage(image, null, null), param);
+		} finally {
+			writer.dispose();
+		}
+	}
+}
@@ -0,0 +1,285 @@
+package net.clgd.ccemux.emulation;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.annotation.Nonnull;
+
+import net.clgd.ccemux.api.emulation.MetricSnapshot;
+import net.clgd.ccemux.api.plugins.Plugin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Breaks each tick down into phases, recording how long each phase took for every computer and plugin.
+ * <p>
+ * Timings are kept in rolling histograms, which cover between one and two {@link #WINDOW windows} of recent ticks.
+ * Whenever a tick goes over budget, a structured log entry is written naming the computer or plugin which took the
+ * longest.
+ */
+public final class TickProfiler {
+	private static final Logger log = LoggerFactory.getLogger(TickProfiler.class);
+
+	/**
+	 * How long each generation of the rolling histograms covers.
+	 */
+	private static final long WINDOW = TimeUnit.SECONDS.toNanos(30);
+
+	/**
+	 * The minimum time between two slow tick log entries.
+	 */
+	private static final long LOG_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+	public enum Phase {
+		/**
+		 * ComputerCraft's own tick of the computer, which handles timers, redstone and starting or stopping the
+		 * computer. Lua code itself runs on the computer threads.
+		 */
+		COMPUTER,
+
+		/**
+		 * Ticking peripherals attached to a computer.
+		 */
+		PERIPHERALS,
+
+		/**
+		 * Ticking a computer's listeners, which includes drawing its renderer.
+		 */
+		LISTENERS,
+
+		/**
+		 * Running main-thread tasks.
+		 */
+		MAIN_THREAD,
+
+		/**
+		 * Running plugins' tick hooks.
+		 */
+		PLUGINS;
+
+		final String key = name().toLowerCase(Locale.ROOT);
+	}
+
+	private static final Phase[] PHASES = Phase.values();
+
+	/**
+	 * The time spent in each phase of a single computer's tick.
+	 */
+	static final class ComputerTimings {
+		private final RollingHistogram[] phases = {new RollingHistogram(), new RollingHistogram(), new RollingHistogram()};
+
+		void rotate() {
+			for (RollingHistogram phase : phases) phase.rotate();
+		}
+	}
+
+	private final RollingHistogram[] phases = new RollingHistogram[PHASES.length];
+	private final Map<Plugin, RollingHistogram> plugins = new ConcurrentHashMap<>();
+
+	/**
+	 * Totals for the current tick. Computers may be ticked in parallel, so these are guarded by {@code this}.
+	 */
+	private final long[] tickPhases = new long[PHASES.length];
+	private String worst;
+	private Phase worstPhase;
+	private long worstTime;
+
+	private long lastRotate = System.nanoTime();
+	private long lastLog = Long.MIN_VALUE;
+	private int suppressed;
+
+	TickProfiler() {
+		for (int i = 0; i < phases.length; i++) phases[i] = new RollingHistogram();
+	}
+
+	/**
+	 * Start profiling a new tick.
+	 */
+	synchronized void beginTick() {
+		for (int i = 0; i < tickPhases.length; i++) tickPhases[i] = 0;
+		worst = null;
+		worstPhase = null;
+		worstTime = 0;
+	}
+
+	/**
+	 * Record how long each phase of ticking a computer took.
+	 *
+	 * @param computer     The computer which was ticked.
+	 * @param computerTime The time taken by {@link Phase#COMPUTER}.
+	 * @param peripherals  The time taken by {@link Phase#PERIPHERALS}.
+	 * @param listeners    The time taken by {@link Phase#LISTENERS}.
+	 */
+	void recordComputer(@Nonnull EmulatedComputerImpl computer, long computerTime, long peripherals, long listeners) {
+		ComputerTimings timings = computer.timings;
+		timings.phases[0].record(computerTime);
+		timings.phases[1].record(peripherals);
+		timings.phases[2].record(listeners);
+
+		phases[Phase.COMPUTER.ordinal()].record(computerTime);
+		phases[Phase.PERIPHERALS.ordinal()].record(peripherals);
+		phases[Phase.LISTENERS.ordinal()].record(listeners);
+
+		synchronized (this) {
+			tickPhases[Phase.COMPUTER.ordinal()] += computerTime;
+			tickPhases[Phase.PERIPHERALS.ordinal()] += peripherals;
+			tickPhases[Phase.LISTENERS.ordinal()] += listeners;
+
+			long total = computerTime + peripherals + listeners;
+			if (total > worstTime) {
+				worstTime = total;
+				worst = "computer " + computer.getID();
+				worstPhase = computerTime >= peripherals && computerTime >= listeners ? Phase.COMPUTER
+					: peripherals >= listeners ? Phase.PERIPHERALS : Phase.LISTENERS;
+			}
+		}
+	}
+
+	void recordMainThread(long time) {
+		phases[Phase.MAIN_THREAD.ordinal()].record(time);
+		synchronized (this) {
+			tickPhases[Phase.MAIN_THREAD.ordinal()] += time;
+			if (time > worstTime) {
+				worstTime = time;
+				worst = "main thread tasks";
+				worstPhase = Phase.MAIN_THREAD;
+			}
+		}
+	}
+
+	void recordPlugin(@Nonnull Plugin plugin, long time) {
+		plugins.computeIfAbsent(plugin, p -> new RollingHistogram()).record(time);
+		synchronized (this) {
+			tickPhases[Phase.PLUGINS.ordinal()] += time;
+			if (time > worstTime) {
+				worstTime = time;
+				worst = "plugin " + plugin.getName();
+				worstPhase = Phase.PLUGINS;
+			}
+		}
+	}
+
+	/**
+	 * Finish profiling a tick, logging it if it went over budget.
+	 *
+	 * @param duration  How long the tick took, in nanoseconds.
+	 * @param budget    How long the tick should have taken, in nanoseconds.
+	 * @param computers The computers which are currently running.
+	 */
+	void endTick(long duration, long budget, @Nonnull Iterable<EmulatedComputerImpl> computers) {
+		long now = System.nanoTime();
+		if (now - lastRotate >= WINDOW) {
+			lastRotate = now;
+			for (RollingHistogram phase : phases) phase.rotate();
+			for (RollingHistogram plugin : plugins.values()) plugin.rotate();
+			for (EmulatedComputerImpl computer : computers) computer.timings.rotate();
+		}
+
+		if (duration <= budget) return;
+		if (now - lastLog < LOG_INTERVAL) {
+			suppressed++;
+			return;
+		}
+
+		synchronized (this) {
+			log.warn("Slow tick: duration_ms={} budget_ms={} computer_ms={} peripherals_ms={} listeners_ms={} main_thread_ms={} plugins_ms={} worst=\"{}\" worst_phase={} worst_ms={} suppressed={}",
+				millis(duration), millis(budget),
+				millis(tickPhases[Phase.COMPUTER.ordinal()]), millis(tickPhases[Phase.PERIPHERALS.ordinal()]),
+				millis(tickPhases[Phase.LISTENERS.ordinal()]), millis(tickPhases[Phase.MAIN_THREAD.ordinal()]),
+				millis(tickPhases[Phase.PLUGINS.ordinal()]),
+				worst == null ? "none" : worst, worstPhase == null ? "none" : worstPhase.key, millis(worstTime), suppressed);
+		}
+
+		lastLog = now;
+		suppressed = 0;
+	}
+
+	private static String millis(long nanos) {
+		return String.format(Locale.ROOT, "%.2f", nanos / 1e6);
+	}
+
+	/**
+	 * Get how long each phase of recent ticks has taken, across every computer.
+	 *
+	 * @return The time spent in each phase in nanoseconds, keyed by the phase's name.
+	 */
+	@Nonnull
+	public Map<String, MetricSnapshot> getPhaseTimes() {
+		Map<String, MetricSnapshot> result = new TreeMap<>();
+		for (Phase phase : PHASES) result.put(phase.key, phases[phase.ordinal()].snapshot(phase.key));
+		return result;
+	}
+
+	/**
+	 * Get how long each phase of a single computer's recent ticks has taken.
+	 *
+	 * @param computer The computer to get timings for.
+	 * @return The time spent in each phase in nanoseconds, keyed by the phase's name.
+	 */
+	@Nonnull
+	public Map<String, MetricSnapshot> getPhaseTimes(@Nonnull EmulatedComputerImpl computer) {
+		Map<String, MetricSnapshot> result = new TreeMap<>();
+		RollingHistogram[] timings = computer.timings.phases;
+		for (int i = 0; i < timings.length; i++) result.put(PHASES[i].key, timings[i].snapshot(PHASES[i].key));
+		return result;
+	}
+
+	/**
+	 * Get how long each plugin's tick hooks have taken over recent ticks.
+	 *
+	 * @return The time spent in nanoseconds, keyed by the plugin's name.
+	 */
+	@Nonnull
+	public Map<String, MetricSnapshot> getPluginTimes() {
+		Map<String, MetricSnapshot> result = new TreeMap<>();
+		plugins.forEach((plugin, times) -> result.put(plugin.getName(), times.snapshot(plugin.getName())));
+		return result;
+	}
+
+	/**
+	 * A histogram which only remembers recent values. Values are written to the current generation, and the
+	 * previous generation is dropped every time the histogram is {@link #rotate() rotated}.
+	 */
+	private static final class RollingHistogram {
+		private static final int COUNT = MetricSnapshot.BUCKETS;
+		private static final int TOTAL = COUNT + 1;
+		private static final int MAX = COUNT + 2;
+		private static final int SIZE = COUNT + 3;
+
+		private volatile AtomicLongArray current = new AtomicLongArray(SIZE);
+		private volatile AtomicLongArray previous = new AtomicLongArray(SIZE);
+
+		void record(long value) {
+			AtomicLongArray current = this.current;
+			current.incrementAndGet(MetricSnapshot.bucket(value));
+			current.incrementAndGet(COUNT);
+			current.addAndGet(TOTAL, value);
+
+			long max;
+			while (value > (max = current.get(MAX))) {
+				if (current.compareAndSet(MAX, max, value)) break;
+			}
+		}
+
+		void rotate() {
+			AtomicLongArray old = previous;
+			for (int i = 0; i < SIZE; i++) old.set(i, 0);
+			previous = current;
+			current = old;
+		}
+
+		MetricSnapshot snapshot(String name) {
+			AtomicLongArray current = this.current, previous = this.previous;
+			long[] buckets = new long[MetricSnapshot.BUCKETS];
+			for (int i = 0; i < buckets.length; i++) buckets[i] = current.get(i) + previous.get(i);
+
+			return new MetricSnapshot(name, "ns",
+				current.get(COUNT) + previous.get(COUNT), current.get(TOTAL) + previous.get(TOTAL),
+				Math.max(current.get(MAX), previous.get(MAX)), buckets);
+		}
+	}
+}
@@ -0,0 +1,325 @@
+package net.clgd.ccemux.emulation;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.DoubleConsumer;
+import java.util.function.LongSupplier;
+
+import javax.annotation.Nonnull;
+
+import net.clgd.ccemux.api.emulation.MetricSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A fixed-rate scheduler for the emulator's main loop.
+ * <p>
+ * Tick deadlines are laid out on a fixed grid using a monotonic clock, so a slow tick only delays the tick after it,
+ * rather than pushing back every following tick. When the emulator falls behind, the {@link CatchUpPolicy} decides
+ * what happens to the ticks which were missed.
+ * <p>
+ * The scheduler can also run faster or slower than real time, using {@link #setSpeed(double)}. Ticks always cover the
+ * same amount of emulated time, but are spaced closer together (or further apart) in real time.
+ */
+public final class TickScheduler {
+	private static final Logger log = LoggerFactory.getLogger(TickScheduler.class);
+
+	/**
+	 * The minimum time between two warnings about the emulator falling behind.
+	 */
+	private static final long WARN_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+
+	/**
+	 * What to do with ticks that were missed because the emulator fell behind.
+	 */
+	public enum CatchUpPolicy {
+		/**
+		 * Run missed ticks back to back, up to a limit. This keeps emulated time in step with real time.
+		 */
+		BURST,
+
+		/**
+		 * Drop missed ticks, and run a single tick whose {@code dt} covers the time which was missed.
+		 */
+		SKIP,
+
+		/**
+		 * Never catch up, letting emulated time run slower than real time while the emulator is overloaded.
+		 */
+		SLOW;
+
+		/**
+		 * Parse a policy from its (case-insensitive) name.
+		 *
+		 * @param name The name of the policy.
+		 * @return The parsed policy, or {@link #BURST} if it is not recognised.
+		 */
+		@Nonnull
+		public static CatchUpPolicy parse(@Nonnull String name) {
+			try {
+				return valueOf(name.trim().toUpperCase(Locale.ROOT));
+			} catch (IllegalArgumentException e) {
+				log.warn("Unknown tick catch-up policy '{}', using 'burst'", name);
+				return BURST;
+			}
+		}
+	}
+
+	private final LongSupplier clock;
+	private final long basePeriod;
+
+	private volatile long period;
+	private volatile double speed = 1;
+
+	private volatile CatchUpPolicy policy;
+	private volatile int maxCatchUp;
+
+	/**
+	 * When the next tick is due. This is guarded by {@code this}, which is only held while reading or updating the
+	 * schedule, never while a tick runs.
+	 */
+	private long nextTick;
+
+	/**
+	 * When the last tick started. This is only written by the thread running ticks.
+	 */
+	private volatile long lastTick;
+	private long lastWarning;
+
+	private volatile long ticks;
+	private volatile long overruns;
+	private volatile long skipped;
+	private volatile long lastDuration;
+	private volatile long maxDuration;
+	private volatile long totalDuration;
+	private final AtomicLongArray durations = new AtomicLongArray(MetricSnapshot.BUCKETS);
+
+	/**
+	 * Create a new scheduler.
+	 *
+	 * @param clock      The monotonic clock to use, in nanoseconds.
+	 * @param period     The time between two ticks when running at normal speed, in nanoseconds.
+	 * @param policy     The policy to use when the emulator falls behind.
+	 * @param maxCatchUp The maximum number of missed ticks to run back to back when using {@link CatchUpPolicy#BURST}.
+	 */
+	public TickScheduler(@Nonnull LongSupplier clock, long period, @Nonnull CatchUpPolicy policy, int maxCatchUp) {
+		if (period <= 0) throw new IllegalArgumentException("period must be positive");
+
+		this.clock = clock;
+		this.basePeriod = period;
+		this.period = period;
+		this.policy = policy;
+		this.maxCatchUp = Math.max(0, maxCatchUp);
+
+		reset();
+	}
+
+	public TickScheduler(long period, @Nonnull CatchUpPolicy policy, int maxCatchUp) {
+		this(System::nanoTime, period, policy, maxCatchUp);
+	}
+
+	/**
+	 * Restart the tick grid from the current time, so that the next tick is due immediately.
+	 */
+	public synchronized void reset() {
+		long now = clock.getAsLong();
+		nextTick = now;
+		lastTick = now - period;
+		lastWarning = now - WARN_INTERVAL;
+	}
+
+	public void setPolicy(@Nonnull CatchUpPolicy policy) {
+		this.policy = policy;
+	}
+
+	@Nonnull
+	public CatchUpPolicy getPolicy() {
+		return policy;
+	}
+
+	public void setMaxCatchUp(int maxCatchUp) {
+		this.maxCatchUp = Math.max(0, maxCatchUp);
+	}
+
+	/**
+	 * Set how fast emulated time runs relative to real time.
+	 *
+	 * @param speed The speed multiplier, where 2 runs ticks twice as often as normal. A speed of 0 or less runs ticks
+	 *              back to back, as fast as possible.
+	 */
+	public void setSpeed(double speed) {
+		long period = speed > 0 ? Math.max(1, Math.round(basePeriod / speed)) : 0;
+		synchronized (this) {
+			this.speed = speed > 0 ? speed : 0;
+			this.period = period;
+			// Reschedule the next tick relative to the last one, without queueing up any "missed" ticks.
+			nextTick = Math.max(clock.getAsLong(), lastTick + period);
+		}
+	}
+
+	/**
+	 * How fast emulated time runs relative to real time, or 0 if ticks are run as fast as possible.
+	 */
+	public double getSpeed() {
+		return speed;
+	}
+
+	/**
+	 * Whether ticks are run back to back, as fast as possible.
+	 */
+	public boolean isUnbounded() {
+		return period == 0;
+	}
+
+	/**
+	 * Run every tick which is currently due, according to the current {@link CatchUpPolicy}.
+	 * <p>
+	 * The schedule is updated before any tick runs, and the ticks themselves run without holding the scheduler's lock.
+	 * This means a tick may safely change the speed, or wait on another thread which does. This should only be called
+	 * from one thread at a time.
+	 *
+	 * @param tick The function to run a tick, which receives the length of the tick in seconds.
+	 * @return The number of ticks which were run.
+	 */
+	public int runDueTicks(@Nonnull DoubleConsumer tick) {
+		// Every tick covers the same amount of emulated time, whatever speed we're running at.
+		double nominal = basePeriod / 1e9;
+
+		int run;
+		double dt;
+		long period, due;
+		synchronized (this) {
+			long now = clock.getAsLong();
+			if (now < nextTick) return 0;
+
+			period = this.period;
+			if (period == 0) {
+				nextTick = now;
+				run = 1;
+				dt = nominal;
+				due = 1;
+			} else {
+				// The number of ticks we should have run by now, including the current one.
+				due = (now - nextTick) / period + 1;
+
+				switch (policy) {
+					case BURST:
+					default:
+						run = (int) Math.min(due, 1L + maxCatchUp);
+						dt = nominal;
+
+						// Anything beyond the catch-up limit is lost.
+						skipped += due - run;
+						nextTick += due * period;
+						break;
+					case SKIP:
+						run = 1;
+						dt = (now - lastTick) * speed / 1e9;
+
+						skipped += due - 1;
+						nextTick += due * period;
+						break;
+					case SLOW:
+						run = 1;
+						dt = nominal;
+
+						// If we're more than a whole tick behind, start a new grid rather than trying to catch up.
+						nextTick = due > 1 ? now + period : nextTick + period;
+						break;
+				}
+			}
+		}
+
+		for (int i = 0; i < run; i++) runTick(tick, dt, period);
+
+		if (due > 1) warnBehind(due - 1, period);
+		return run;
+	}
+
+	private void runTick(DoubleConsumer tick, double dt, long period) {
+		long start = clock.getAsLong();
+		lastTick = start;
+
+		tick.accept(dt);
+
+		long duration = clock.getAsLong() - start;
+		lastDuration = duration;
+		totalDuration += duration;
+		if (duration > maxDuration) maxDuration = duration;
+		durations.incrementAndGet(MetricSnapshot.bucket(duration));
+		ticks++;
+		if (period > 0 && duration > period) overruns++;
+	}
+
+	private void warnBehind(long behind, long period) {
+		long now = clock.getAsLong();
+		if (now - lastWarning < WARN_INTERVAL) return;
+		lastWarning = now;
+
+		log.warn("Can't keep up! Running {} ticks behind (last tick took {} ms of a {} ms budget). {} ticks have overrun and {} have been skipped so far.",
+			behind, TimeUnit.NANOSECONDS.toMillis(lastDuration), TimeUnit.NANOSECONDS.toMillis(period), overruns, skipped);
+	}
+
+	/**
+	 * Block until the next tick is due, or the current thread is interrupted.
+	 */
+	public void awaitNextTick() {
+		long remaining;
+		while ((remaining = getNextTick() - clock.getAsLong()) > 0) {
+			LockSupport.parkNanos(this, remaining);
+			if (Thread.interrupted()) return;
+		}
+	}
+
+	private synchronized long getNextTick() {
+		return nextTick;
+	}
+
+	/**
+	 * The real time between two ticks at the current speed, in nanoseconds. This is 0 if ticks are run as fast as
+	 * possible.
+	 */
+	public long getPeriod() {
+		return period;
+	}
+
+	/**
+	 * The total number of ticks which have been run.
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * The number of ticks which took longer than {@link #getPeriod()} to run.
+	 */
+	public long getOverruns() {
+		return overruns;
+	}
+
+	/**
+	 * The number of ticks which were dropped rather than run, due to the emulator falling behind.
+	 */
+	public long getSkipped() {
+		return skipped;
+	}
+
+	/**
+	 * How long the last tick took to run, in nanoseconds.
+	 */
+	public long getLastDuration() {
+		return lastDuration;
+	}
+
+	/**
+	 * A histogram of how long each tick took to run, in nanoseconds.
+	 */
+	@Nonnull
+	public MetricSnapshot getDurations() {
+		long[] buckets = new long[MetricSnapshot.BUCKETS];
+		for (int i = 0; i < buckets.length; i++) buckets[i] = durations.get(i);
+		return new MetricSnapshot("tick_duration", "ns", ticks, totalDuration, maxDuration, buckets);
+	}
+}
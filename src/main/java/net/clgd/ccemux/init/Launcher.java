@@ -25,11 +25,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.clgd.ccemux.api.OperatingSystem;
+import net.clgd.ccemux.api.emulation.EmulatedComputer;
 import net.clgd.ccemux.api.rendering.RendererFactory;
 import net.clgd.ccemux.api.rendering.TerminalFont;
 import net.clgd.ccemux.emulation.CCEmuX;
 import net.clgd.ccemux.emulation.SessionState;
 import net.clgd.ccemux.plugins.PluginManager;
+import net.clgd.ccemux.recording.RecordingExporter;
 
 public class Launcher {
 	private static final Logger log = LoggerFactory.getLogger(Launcher.class);
@@ -63,6 +65,17 @@ public class Launcher {
 			.desc("Sets the renderer to use. Run without a value to list all available renderers.").hasArg()
 			.optionalArg(true).argName("renderer").build());
 
+		opts.addOption(builder().longOpt("speed")
+			.desc("Sets how fast emulated time runs compared to real time, overriding the config. Use 0 to run as fast as possible.").hasArg()
+			.argName("multiplier").build());
+
+		opts.addOption(builder().longOpt("record")
+			.desc("Record the terminals of the computers started at launch to the recordings folder of the data directory.").build());
+
+		opts.addOption(builder().longOpt("export-recording")
+			.desc("Convert a recording to an animated GIF or PNG, depending on the output's extension, and then exit.").hasArgs()
+			.numberOfArgs(2).argName("recording> <output").build());
+
 		opts.addOption(builder().longOpt("plugin").desc(
 			"Used to load additional plugins not present in the default plugin directory. Value should be a path to a .jar file.")
 			.hasArg().argName("file").build());
@@ -90,6 +103,12 @@ public class Launcher {
 			return;
 		}
 
+		if (cli.hasOption("export-recording")) {
+			String[] files = cli.getOptionValues("export-recording");
+			System.exit(exportRecording(new File(files[0]), new File(files[1])) ? 0 : 1);
+			return;
+		}
+
 		log.info("Starting CCEmuX");
 		log.debug("ClassLoader in use: {}", Launcher.class.getClassLoader().getClass().getName());
 
@@ -114,10 +133,37 @@ public class Launcher {
 
 		String termSize = cli.getOptionValue("term-size");
 
-		new Launcher(dataDir, assetDir, computerDir, startIn, listRenderers, renderer, termSize, plugins).launch();
+		Double speed = null;
+		if (cli.hasOption("speed")) {
+			try {
+				speed = Double.parseDouble(cli.getOptionValue("speed"));
+			} catch (NumberFormatException e) {
+				System.err.println("Cannot parse speed '" + cli.getOptionValue("speed") + "', should be a number.");
+				System.exit(1);
+				return;
+			}
+		}
+
+		boolean record = cli.hasOption("record");
+
+		new Launcher(dataDir, assetDir, computerDir, startIn, listRenderers, renderer, termSize, speed, record, plugins).launch();
 		System.exit(0);
 	}
 
+	private static boolean exportRecording(File recording, File output) {
+		try {
+			TerminalFont.loadImplicitFonts(Launcher.class.getClassLoader());
+
+			log.info("Exporting {} to {}", recording, output);
+			int frames = RecordingExporter.export(recording, output);
+			log.info("Wrote {} frames to {}", frames, output);
+			return true;
+		} catch (IOException e) {
+			log.error("Cannot export recording", e);
+			return false;
+		}
+	}
+
 	private final Path dataDir;
 	private final Path assetDir;
 	private final Path computerDir;
@@ -125,9 +171,11 @@ public class Launcher {
 	private final boolean listRenderers;
 	private final String renderer;
 	private final String termSize;
+	private final Double speed;
+	private final boolean record;
 	private final List<Path> plugins;
 
-	public Launcher(Path dataDir, Path assetDir, Path computerDir, List<Path> startDirs, boolean listRenderers, String renderer, String termSize, List<Path> plugins) {
+	public Launcher(Path dataDir, Path assetDir, Path computerDir, List<Path> startDirs, boolean listRenderers, String renderer, String termSize, Double speed, boolean record, List<Path> plugins) {
 		this.dataDir = dataDir;
 		this.assetDir = assetDir;
 		this.computerDir = computerDir;
@@ -135,6 +183,8 @@ public class Launcher {
 		this.listRenderers = listRenderers;
 		this.renderer = renderer;
 		this.termSize = termSize;
+		this.speed = speed;
+		this.record = record;
 		this.plugins = plugins;
 	}
 
@@ -314,6 +364,7 @@ public class Launcher {
 
 			Path sessionPath = dataDir.resolve("session.json");
 			CCEmuX emu = new CCEmuX(cfg, renderFactory, pluginMgr, getCCSource(), sessionPath);
+			if (speed != null) emu.setSpeed(speed);
 
 			// Either load the requested computers, restore the session or add a new computer
 			if (startDirs.size() > 0) {
@@ -334,6 +385,16 @@ public class Launcher {
 				}
 			}
 
+			if (record) {
+				for (EmulatedComputer computer : emu.getComputers()) {
+					try {
+						computer.startRecording();
+					} catch (IOException e) {
+						log.error("Cannot start recording computer ID {}", computer.getID(), e);
+					}
+				}
+			}
+
 			emu.run();
 
 			pluginMgr.onClosing(emu);
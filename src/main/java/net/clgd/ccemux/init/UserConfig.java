@@ -18,6 +18,8 @@ import com.google.gson.*;
 import dan200.computercraft.core.CoreConfig;
 import dan200.computercraft.core.apis.http.options.Action;
 import dan200.computercraft.core.apis.http.options.AddressRule;
+import net.clgd.ccemux.api.config.ConfigProperty;
+import net.clgd.ccemux.api.config.Group;
 import net.clgd.ccemux.api.emulation.EmuConfig;
 import net.clgd.ccemux.config.JsonAdapter;
 
@@ -36,6 +38,61 @@ public class UserConfig extends EmuConfig {
 
 	private final JsonAdapter adapter;
 
+	private final Group emulation = group("emulation")
+		.setName("Emulation")
+		.setDescription("Options controlling how the emulator schedules and ticks computers");
+
+	public final ConfigProperty<String> tickCatchUp = emulation.property("tickCatchUp", String.class, "burst")
+		.setName("Tick catch-up policy")
+		.setDescription("What to do when the emulator falls behind its target of 20 ticks per second.\n" +
+			"\"burst\" runs the missed ticks back to back (up to \"maxCatchUpTicks\"), \"skip\" drops them and runs a single longer tick, " +
+			"and \"slow\" lets emulated time fall behind real time.");
+
+	public final ConfigProperty<Integer> maxCatchUpTicks = emulation.property("maxCatchUpTicks", int.class, 10)
+		.setName("Maximum catch-up ticks")
+		.setDescription("The maximum number of missed ticks to run back to back when using the \"burst\" catch-up policy. Any further missed ticks are skipped.");
+
+	public final ConfigProperty<Double> speed = emulation.property("speed", double.class, 1.0)
+		.setName("Emulation speed")
+		.setDescription("How fast emulated time runs compared to real time. Timers, os.clock() and the in-game day all follow emulated time.\n" +
+			"For instance, 2 runs the emulator at twice the normal speed. 0 runs ticks back to back as fast as possible, only waiting for computers to finish handling their events.");
+
+	public final ConfigProperty<Boolean> idleTracking = emulation.property("idleTracking", boolean.class, false)
+		.setName("Skip idle computers")
+		.setDescription("Stop ticking computers which are turned off and have nothing left to do. They are woken up again by events, " +
+			"input from their window, or being turned on.\n" +
+			"Computers which are turned on are always ticked, even while waiting for an event, so their timers still fire.");
+
+	public final ConfigProperty<Integer> unwatchedTickInterval = emulation.property("unwatchedTickInterval", int.class, 1)
+		.setName("Unwatched computer tick interval")
+		.setDescription("Only update the peripherals and renderers of computers nobody can see (such as those in minimised windows) " +
+			"once every this many ticks, so background computers use less CPU. Timers and os.clock() still keep time.\n" +
+			"1 ticks every computer as normal. Computers without a window, such as those using the headless renderer, are never watched.");
+
+	public final ConfigProperty<Integer> tickThreads = emulation.property("tickThreads", int.class, 1)
+		.setName("Tick thread count")
+		.setDescription("The number of threads used to tick computers, their peripherals and renderers.\n" +
+			"1 ticks every computer on the emulator thread, and 0 uses one thread per CPU core.");
+
+	public final ConfigProperty<Integer> mainThreadBudget = emulation.property("mainThreadBudget", int.class, 10)
+		.setName("Main thread time budget")
+		.setDescription("The time in milliseconds that main thread tasks (such as some peripheral methods) may take up in a single tick. " +
+			"Any remaining tasks are run on the following ticks.");
+
+	public final ConfigProperty<Integer> mainThreadComputerBudget = emulation.property("mainThreadComputerBudget", int.class, 5)
+		.setName("Main thread time budget per computer")
+		.setDescription("The time in milliseconds that a single computer's main thread tasks may take up in a single tick. " +
+			"Computers which go over this budget have less time on the following ticks.");
+
+	private final Group screenshots = group("screenshots")
+		.setName("Screenshots")
+		.setDescription("Options controlling how screenshots are saved");
+
+	public final ConfigProperty<Integer> screenshotCompression = screenshots.property("compression", int.class, -1)
+		.setName("PNG compression level")
+		.setDescription("How hard to compress screenshots, from 0 (fastest to save, largest files) to 9 (slowest to save, smallest files). " +
+			"-1 uses Java's default level.");
+
 	public UserConfig(Path dataDir, Path assetDir, Path computerDir) {
 		this.dataDir = dataDir;
 		this.assetDir = assetDir;
@@ -7,9 +7,10 @@ import net.clgd.ccemux.api.config.ConfigProperty;
 import net.clgd.ccemux.api.config.Group;
 
 public class UserConfigCCTweaked extends UserConfig {
-	private final ConfigProperty<Integer> computerThreads = property("computerThreads", int.class, 1)
+	public final ConfigProperty<Integer> computerThreads = property("computerThreads", int.class, 1)
 		.setName("Computer thread count")
-		.setDescription("Set the number of threads computers can run on. A higher number means more computers can run at once, but may induce lag.\n" +
+		.setDescription("Set the number of threads computers can run on. A higher number means more computers can run at once, but may induce lag. Set to 0 to use one thread per CPU core.\n" +
+			"Changes only apply to computers created afterwards.\n" +
 			"Please note that some mods may not work with a thread count higher than 1. Use with caution.");
 
 	private final Group http = group("http")
@@ -0,0 +1,29 @@
+package net.clgd.ccemux.jfr;
+
+import jdk.jfr.*;
+
+@Name(ModemTransmitEvent.NAME)
+@Label("Modem Transmit")
+@Category({"CCEmuX", "Peripherals"})
+@Description("A message sent by a wireless modem")
+@StackTrace(false)
+public class ModemTransmitEvent extends Event {
+	public static final String NAME = "net.clgd.ccemux.ModemTransmit";
+
+	@Label("Computer ID")
+	public int computerId;
+
+	@Label("Channel")
+	public int channel;
+
+	@Label("Reply Channel")
+	public int replyChannel;
+
+	@Label("Payload Size")
+	@Description("An estimate of the payload's size, counting characters in strings and entries in tables")
+	public long payloadSize;
+
+	@Label("Receivers")
+	@Description("The number of modems which received the message")
+	public int receivers;
+}
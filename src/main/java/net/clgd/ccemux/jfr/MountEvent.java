@@ -0,0 +1,22 @@
+package net.clgd.ccemux.jfr;
+
+import jdk.jfr.*;
+
+@Name(MountEvent.NAME)
+@Label("Mount Operation")
+@Category({"CCEmuX", "Filesystem"})
+@Description("An operation on one of the emulator's read-only mounts, such as the ROM")
+@StackTrace(false)
+public class MountEvent extends Event {
+	public static final String NAME = "net.clgd.ccemux.Mount";
+
+	@Label("Operation")
+	public String operation;
+
+	@Label("Path")
+	public String path;
+
+	@Label("Size")
+	@Description("The size of the file opened, or the number of entries listed")
+	public long size;
+}
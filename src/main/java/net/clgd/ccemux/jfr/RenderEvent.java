@@ -0,0 +1,26 @@
+package net.clgd.ccemux.jfr;
+
+import jdk.jfr.*;
+
+@Name(RenderEvent.NAME)
+@Label("Render Terminal")
+@Category({"CCEmuX", "Rendering"})
+@Description("Drawing a computer's terminal")
+@StackTrace(false)
+public class RenderEvent extends Event {
+	public static final String NAME = "net.clgd.ccemux.Render";
+
+	@Label("Computer ID")
+	public int computerId;
+
+	@Label("Renderer")
+	public String renderer;
+
+	@Label("Width")
+	@Description("The width of the terminal, in characters")
+	public int width;
+
+	@Label("Height")
+	@Description("The height of the terminal, in characters")
+	public int height;
+}
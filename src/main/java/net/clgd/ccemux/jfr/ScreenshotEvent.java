@@ -0,0 +1,27 @@
+package net.clgd.ccemux.jfr;
+
+import jdk.jfr.*;
+
+@Name(ScreenshotEvent.NAME)
+@Label("Screenshot")
+@Category({"CCEmuX", "Rendering"})
+@Description("Drawing and encoding a screenshot of a computer's terminal")
+@StackTrace(false)
+public class ScreenshotEvent extends Event {
+	public static final String NAME = "net.clgd.ccemux.Screenshot";
+
+	@Label("Computer ID")
+	public int computerId;
+
+	@Label("Width")
+	@Description("The width of the image, in pixels")
+	public int width;
+
+	@Label("Height")
+	@Description("The height of the image, in pixels")
+	public int height;
+
+	@Label("File Size")
+	@DataAmount
+	public long bytes;
+}
@@ -0,0 +1,20 @@
+package net.clgd.ccemux.jfr;
+
+import jdk.jfr.*;
+
+@Name(TickEvent.NAME)
+@Label("Tick")
+@Category({"CCEmuX", "Emulation"})
+@Description("A single tick of the emulator, covering every computer, main-thread tasks and plugin hooks")
+@StackTrace(false)
+public class TickEvent extends Event {
+	public static final String NAME = "net.clgd.ccemux.Tick";
+
+	@Label("Tick")
+	@Description("The number of ticks run before this one")
+	public long tick;
+
+	@Label("Computers")
+	@Description("The number of computers in the emulator")
+	public int computers;
+}
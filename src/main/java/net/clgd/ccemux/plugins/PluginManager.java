@@ -2,9 +2,13 @@ package net.clgd.ccemux.plugins;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,6 +48,11 @@ public class PluginManager implements Closing, CreatingComputer, CreatingROM, Co
 	private final Map<String, RendererFactory<?>> renderers = new HashMap<>();
 	private final Map<String, PeripheralFactory<?>> peripherals = new HashMap<>();
 
+	/**
+	 * The total time spent running each type of hook, in nanoseconds.
+	 */
+	private final Map<Class<? extends Hook>, AtomicLong> hookTimes = new ConcurrentHashMap<>();
+
 	public PluginManager(EmuConfig cfg) {
 		this.cfg = cfg;
 	}
@@ -90,15 +99,38 @@ public class PluginManager implements Closing, CreatingComputer, CreatingROM, Co
 	}
 
 	private <T extends Hook> void doHooks(Class<T> cls, Consumer<T> f) {
+		doHooks(cls, f, null);
+	}
+
+	private <T extends Hook> void doHooks(Class<T> cls, Consumer<T> f, @Nullable ObjLongConsumer<Plugin> timings) {
+		long start = System.nanoTime();
 		for (Plugin p : enabled) {
-			for (T h : p.getHooks(cls)) {
+			Set<T> hooks = p.getHooks(cls);
+			if (hooks.isEmpty()) continue;
+
+			long pluginStart = timings == null ? 0 : System.nanoTime();
+			for (T h : hooks) {
 				try {
 					f.accept(h);
 				} catch (Exception e) {
 					log.warn("Exception while calling hook [{}] for plugin [{}]", cls.getName(), p, e);
 				}
 			}
+			if (timings != null) timings.accept(p, System.nanoTime() - pluginStart);
 		}
+
+		hookTimes.computeIfAbsent(cls, k -> new AtomicLong()).addAndGet(System.nanoTime() - start);
+	}
+
+	/**
+	 * Get the total time spent running each type of hook.
+	 *
+	 * @return The time spent in nanoseconds, keyed by the hook's name.
+	 */
+	public Map<String, Long> getHookTimes() {
+		Map<String, Long> times = new TreeMap<>();
+		hookTimes.forEach((cls, time) -> times.put(cls.getSimpleName(), time.get()));
+		return times;
 	}
 
 	@Override
@@ -106,6 +138,17 @@ public class PluginManager implements Closing, CreatingComputer, CreatingROM, Co
 		doHooks(Tick.class, h -> h.onTick(emu, dt));
 	}
 
+	/**
+	 * Run every plugin's tick hooks, reporting how long each plugin took.
+	 *
+	 * @param emu     The emulator being ticked.
+	 * @param dt      The length of the tick, in seconds.
+	 * @param timings Receives each plugin, and the time its hooks took in nanoseconds.
+	 */
+	public void onTick(@Nonnull Emulator emu, double dt, @Nonnull ObjLongConsumer<Plugin> timings) {
+		doHooks(Tick.class, h -> h.onTick(emu, dt), timings);
+	}
+
 	@Override
 	public void onRendererCreated(@Nonnull Emulator emu, @Nonnull Renderer renderer) {
 		doHooks(RendererCreated.class, h -> h.onRendererCreated(emu, renderer));
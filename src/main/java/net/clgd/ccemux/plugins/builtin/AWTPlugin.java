@@ -18,6 +18,7 @@ import net.clgd.ccemux.api.plugins.PluginManager;
 import net.clgd.ccemux.api.rendering.Renderer;
 import net.clgd.ccemux.api.rendering.RendererFactory;
 import net.clgd.ccemux.rendering.awt.AWTRenderer;
+import net.clgd.ccemux.rendering.awt.DashboardRenderer;
 import net.clgd.ccemux.rendering.awt.config.ConfigView;
 
 @AutoService(Plugin.class)
@@ -33,7 +34,7 @@ public class AWTPlugin extends Plugin {
 	@Nonnull
 	@Override
 	public String getDescription() {
-		return "A CPU-based renderer using Java AWT.";
+		return "A CPU-based renderer using Java AWT, with a window for each computer or a single dashboard showing them all.";
 	}
 
 	@Nonnull
@@ -86,15 +87,38 @@ public class AWTPlugin extends Plugin {
 				return true;
 			}
 		});
+
+		manager.addRenderer("Dashboard", (computer, cfg) -> new DashboardRenderer(computer, config));
 	}
 
 	public static class AWTConfig {
 		public final ConfigProperty<Boolean> nativePaste;
+		public final ConfigProperty<Boolean> incrementalRepaint;
+		public final ConfigProperty<Integer> maxFrameRate;
+		public final ConfigProperty<Integer> unfocusedFrameRate;
+		public final ConfigProperty<Double> dashboardThumbnailScale;
 
 		AWTConfig(Group group) {
 			nativePaste = group.property("nativePaste", boolean.class, false)
 				.setName("Use native paste")
 				.setDescription("Listen to native paste events instead of Ctrl+V.");
+
+			incrementalRepaint = group.property("incrementalRepaint", boolean.class, true)
+				.setName("Incremental repaint")
+				.setDescription("Only redraw the parts of the terminal which have changed, rather than the whole terminal every frame.");
+
+			maxFrameRate = group.property("maxFrameRate", int.class, 60)
+				.setName("Maximum frame rate")
+				.setDescription("The maximum number of times per second windows are redrawn. Set to 0 for no limit.");
+
+			unfocusedFrameRate = group.property("unfocusedFrameRate", int.class, 10)
+				.setName("Background frame rate")
+				.setDescription("The maximum number of times per second windows without focus are redrawn. Set to 0 to redraw them as often as focused windows. " +
+					"Minimised windows are never redrawn.");
+
+			dashboardThumbnailScale = group.property("dashboardThumbnailScale", double.class, 0.5)
+				.setName("Dashboard thumbnail scale")
+				.setDescription("The largest scale computers are drawn at on the dashboard, before being zoomed in on. Computers are drawn smaller when needed to fit them all in the window.");
 		}
 	}
 }
@@ -3,11 +3,13 @@ package net.clgd.ccemux.plugins.builtin;
 import java.awt.Desktop;
 import java.awt.Toolkit;
 import java.awt.datatransfer.StringSelection;
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalDouble;
@@ -30,6 +32,7 @@ import net.clgd.ccemux.Utils;
 import net.clgd.ccemux.api.config.Group;
 import net.clgd.ccemux.api.emulation.EmulatedComputer;
 import net.clgd.ccemux.api.emulation.Emulator;
+import net.clgd.ccemux.api.emulation.MetricSnapshot;
 import net.clgd.ccemux.api.emulation.filesystem.VirtualFile;
 import net.clgd.ccemux.api.peripheral.Peripheral;
 import net.clgd.ccemux.api.peripheral.PeripheralFactory;
@@ -148,12 +151,12 @@ public class CCEmuXAPI extends Plugin {
 			built.configSetup(group);
 			if (configuration != null) LuaAdapter.fromLua(group, configuration);
 
-			computer.getEnvironment().setPeripheral(side, built);
+			computer.setPeripheral(side, built);
 		}
 
 		@LuaFunction
 		public final void detach(ComputerSide side) {
-			computer.getEnvironment().setPeripheral(side, null);
+			computer.setPeripheral(side, null);
 		}
 
 		@LuaFunction
@@ -166,6 +169,61 @@ public class CCEmuXAPI extends Plugin {
 				});
 		}
 
+		@LuaFunction
+		public final Object[] startRecording() {
+			try {
+				return new Object[] { computer.startRecording().getName() };
+			} catch (IOException e) {
+				log.error("Cannot start recording", e);
+				return new Object[] { null, "Cannot start recording." };
+			}
+		}
+
+		@LuaFunction
+		public final String stopRecording() {
+			File file = computer.stopRecording();
+			return file == null ? null : file.getName();
+		}
+
+		@LuaFunction
+		public final boolean isRecording() {
+			return computer.isRecording();
+		}
+
+		@LuaFunction
+		public final Map<String, Map<String, Object>> getMetrics(Optional<Integer> id) throws LuaException {
+			if (!id.isPresent()) return toLua(computer.getMetrics());
+
+			for (EmulatedComputer other : emu.getComputers()) {
+				if (other.getID() == id.get()) return toLua(other.getMetrics());
+			}
+
+			throw new LuaException("No such computer");
+		}
+
+		@LuaFunction
+		public final Map<String, Map<String, Object>> getEmulatorMetrics() {
+			return toLua(emu.getMetrics());
+		}
+
+		private static Map<String, Map<String, Object>> toLua(Map<String, MetricSnapshot> metrics) {
+			Map<String, Map<String, Object>> result = new HashMap<>();
+			for (MetricSnapshot metric : metrics.values()) {
+				Map<String, Object> entry = new HashMap<>();
+				entry.put("count", metric.getCount());
+				if (metric.isEvent()) {
+					entry.put("unit", metric.getUnit());
+					entry.put("total", metric.getTotal());
+					entry.put("max", metric.getMax());
+					entry.put("mean", metric.getMean());
+					entry.put("p50", metric.getPercentile(0.5));
+					entry.put("p99", metric.getPercentile(0.99));
+				}
+				result.put(metric.getName(), entry);
+			}
+			return result;
+		}
+
 		@Override
 		public String[] getNames() {
 			return new String[] { "ccemux" };
@@ -0,0 +1,69 @@
+package net.clgd.ccemux.plugins.builtin;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+
+import javax.annotation.Nonnull;
+
+import com.google.auto.service.AutoService;
+import net.clgd.ccemux.api.config.ConfigProperty;
+import net.clgd.ccemux.api.config.Group;
+import net.clgd.ccemux.api.plugins.Plugin;
+import net.clgd.ccemux.api.plugins.PluginManager;
+import net.clgd.ccemux.rendering.headless.HeadlessRenderer;
+
+@AutoService(Plugin.class)
+public class HeadlessPlugin extends Plugin {
+	private HeadlessConfig config;
+
+	@Nonnull
+	@Override
+	public String getName() {
+		return "Headless Renderer";
+	}
+
+	@Nonnull
+	@Override
+	public String getDescription() {
+		return "A renderer which displays nothing, for running computers on servers without a display.";
+	}
+
+	@Nonnull
+	@Override
+	public Optional<String> getVersion() {
+		return Optional.empty();
+	}
+
+	@Nonnull
+	@Override
+	public Collection<String> getAuthors() {
+		return Collections.singleton("CLGD");
+	}
+
+	@Nonnull
+	@Override
+	public Optional<String> getWebsite() {
+		return Optional.empty();
+	}
+
+	@Override
+	public void configSetup(@Nonnull Group group) {
+		config = new HeadlessConfig(group);
+	}
+
+	@Override
+	public void setup(@Nonnull PluginManager manager) {
+		manager.addRenderer("Headless", (comp, cfg) -> new HeadlessRenderer(comp, config));
+	}
+
+	public static class HeadlessConfig {
+		public final ConfigProperty<Double> snapshotInterval;
+
+		HeadlessConfig(Group group) {
+			snapshotInterval = group.property("snapshotInterval", double.class, 0.0)
+				.setName("Snapshot interval")
+				.setDescription("How often, in seconds, to save a screenshot of each computer whose terminal has changed. Set to 0 to never save screenshots.");
+		}
+	}
+}
@@ -25,6 +25,11 @@ public class JFXPlugin extends Plugin {
 		OperatingSystem.get().equals(OperatingSystem.MacOSX)).setName("Double font resolution").setDescription(
 		"Scales fonts by a factor of two before rendering. " + "May fix blurriness on high DPI displays.");
 
+	public static final ConfigProperty<Integer> unfocusedFrameRate = new ConfigProperty<>("unfocusedFrameRate", Integer.class,
+		10).setName("Background frame rate").setDescription(
+		"The maximum number of times per second windows without focus are redrawn. Set to 0 to redraw them as often as "
+			+ "focused windows. Minimised windows are never redrawn.");
+
 	@Nonnull
 	@Override
 	public String getName() {
@@ -59,6 +64,7 @@ public class JFXPlugin extends Plugin {
 	public void configSetup(@Nonnull Group group) {
 		group.addProperty(forceUtilityDecoration);
 		group.addProperty(doubleFontScale);
+		group.addProperty(unfocusedFrameRate);
 	}
 
 	@Override
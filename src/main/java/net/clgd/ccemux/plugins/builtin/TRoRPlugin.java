@@ -7,12 +7,16 @@ import java.util.Optional;
 import javax.annotation.Nonnull;
 
 import com.google.auto.service.AutoService;
+import net.clgd.ccemux.api.config.ConfigProperty;
+import net.clgd.ccemux.api.config.Group;
 import net.clgd.ccemux.api.plugins.Plugin;
 import net.clgd.ccemux.api.plugins.PluginManager;
 import net.clgd.ccemux.rendering.tror.TRoRRenderer;
 
 @AutoService(Plugin.class)
 public class TRoRPlugin extends Plugin {
+	private TRoRConfig config;
+
 	@Nonnull
 	@Override
 	public String getName() {
@@ -22,7 +26,7 @@ public class TRoRPlugin extends Plugin {
 	@Nonnull
 	@Override
 	public String getDescription() {
-		return "A CPU-based renderer which reads from stdin and writes to stdout using the TRoR protocol.";
+		return "A CPU-based renderer which speaks the TRoR protocol over stdin and stdout, or to any number of clients over a local socket.";
 	}
 
 	@Nonnull
@@ -43,8 +47,47 @@ public class TRoRPlugin extends Plugin {
 		return Optional.empty();
 	}
 
+	@Override
+	public void configSetup(@Nonnull Group group) {
+		config = new TRoRConfig(group);
+	}
+
 	@Override
 	public void setup(@Nonnull PluginManager manager) {
-		manager.addRenderer("TRoR", (comp, cfg) -> new TRoRRenderer(comp));
+		manager.addRenderer("TRoR", (comp, cfg) -> new TRoRRenderer(comp, config));
+	}
+
+	public static class TRoRConfig {
+		public final ConfigProperty<Boolean> bufferOutput;
+		public final ConfigProperty<Integer> bufferSize;
+		public final ConfigProperty<Boolean> coalesceOutput;
+		public final ConfigProperty<Integer> serverPort;
+		public final ConfigProperty<String> serverSocket;
+
+		TRoRConfig(Group group) {
+			bufferOutput = group.property("bufferOutput", boolean.class, false)
+				.setName("Buffer output")
+				.setDescription("Write output once per tick, rather than after every message. This uses much less CPU when programs draw a lot, " +
+					"at the cost of up to a tick of latency.");
+
+			bufferSize = group.property("bufferSize", int.class, 65536)
+				.setName("Output buffer size")
+				.setDescription("When buffering output, the number of bytes to buffer before writing them out early, part way through a tick.");
+
+			coalesceOutput = group.property("coalesceOutput", boolean.class, false)
+				.setName("Coalesce output")
+				.setDescription("Rather than sending every terminal operation, send the rows which changed once per tick, followed by the final cursor position and colours. " +
+					"This makes bandwidth depend on how much of the screen changed, rather than how often programs draw. Implies \"Buffer output\".");
+
+			serverPort = group.property("serverPort", int.class, 0)
+				.setName("Server port")
+				.setDescription("Serve TRoR to any number of clients on this port of the loopback interface, rather than using stdin and stdout. " +
+					"Set to 0 to disable. This implies \"Coalesce output\", and only takes effect when the emulator is restarted.");
+
+			serverSocket = group.property("serverSocket", String.class, "")
+				.setName("Server socket")
+				.setDescription("Serve TRoR on a Unix domain socket at this path, rather than using stdin and stdout. This takes priority over \"Server port\". " +
+					"Leave empty to disable.");
+		}
 	}
 }
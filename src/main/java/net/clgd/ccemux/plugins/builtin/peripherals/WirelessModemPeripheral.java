@@ -1,6 +1,8 @@
 package net.clgd.ccemux.plugins.builtin.peripherals;
 
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.Nonnull;
@@ -11,6 +13,7 @@ import dan200.computercraft.api.peripheral.IComputerAccess;
 import net.clgd.ccemux.api.config.ConfigProperty;
 import net.clgd.ccemux.api.config.Group;
 import net.clgd.ccemux.api.peripheral.Peripheral;
+import net.clgd.ccemux.jfr.ModemTransmitEvent;
 
 /**
  * Emulates ComputerCraft's wireless and ender modem
@@ -43,24 +46,28 @@ public class WirelessModemPeripheral implements Peripheral {
 		posZ = group.property("posZ", Integer.class, 0);
 	}
 
-	private void receiveSameDimension(@Nonnull Packet packet, double distance) {
+	private boolean receiveSameDimension(@Nonnull Packet packet, double distance) {
 		if (packet.getSender() != this) {
 			synchronized (this) {
 				if (computer != null && channels.contains(packet.getChannel())) {
 					computer.queueEvent("modem_message", computer.getAttachmentName(), packet.getChannel(), packet.getReplyChannel(), packet.getPayload(), distance);
+					return true;
 				}
 			}
 		}
+		return false;
 	}
 
-	private void receiveDifferentDimension(@Nonnull Packet packet) {
+	private boolean receiveDifferentDimension(@Nonnull Packet packet) {
 		if (packet.getSender() != this) {
 			synchronized (this) {
 				if (computer != null && channels.contains(packet.getChannel())) {
 					computer.queueEvent("modem_message", computer.getAttachmentName(), packet.getChannel(), packet.getReplyChannel(), packet.getPayload());
+					return true;
 				}
 			}
 		}
+		return false;
 	}
 
 	@Override
@@ -119,12 +126,45 @@ public class WirelessModemPeripheral implements Peripheral {
 		checkChannel(channel);
 		checkChannel(replyChannel);
 
+		ModemTransmitEvent event = new ModemTransmitEvent();
+		event.begin();
+
+		int receivers = 0;
 		synchronized (this) {
 			Packet packet = new Packet(channel, replyChannel, payload, this);
 			synchronized (modems) {
-				for (WirelessModemPeripheral receiver : modems) receiver.tryTransmit(packet);
+				for (WirelessModemPeripheral receiver : modems) {
+					if (receiver.tryTransmit(packet)) receivers++;
+				}
+			}
+		}
+
+		event.end();
+		if (event.shouldCommit()) {
+			IComputerAccess computer = this.computer;
+			event.computerId = computer == null ? -1 : computer.getID();
+			event.channel = channel;
+			event.replyChannel = replyChannel;
+			event.payloadSize = estimateSize(payload, 0);
+			event.receivers = receivers;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Estimate the size of a modem message, for monitoring.
+	 */
+	private static long estimateSize(Object payload, int depth) {
+		if (payload instanceof String) return ((String) payload).length();
+		if (payload instanceof Map && depth < 8) {
+			long size = 0;
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) payload).entrySet()) {
+				size += estimateSize(entry.getKey(), depth + 1) + estimateSize(entry.getValue(), depth + 1);
 			}
+			return size;
 		}
+		if (payload instanceof Collection) return ((Collection<?>) payload).size();
+		return payload == null ? 0 : 1;
 	}
 
 	@LuaFunction
@@ -132,7 +172,7 @@ public class WirelessModemPeripheral implements Peripheral {
 		return true;
 	}
 
-	private void tryTransmit(Packet packet) {
+	private boolean tryTransmit(Packet packet) {
 		WirelessModemPeripheral sender = packet.getSender();
 		if (world.get().equals(sender.world.get())) {
 			double receiveRange = Math.max(sender.range.get(), range.get());
@@ -142,11 +182,12 @@ public class WirelessModemPeripheral implements Peripheral {
 				+ Math.pow(posZ.get() - sender.posZ.get(), 2);
 
 			if (interdimensional.get() || sender.interdimensional.get() || distanceSq <= receiveRange * receiveRange) {
-				receiveSameDimension(packet, Math.sqrt(distanceSq));
+				return receiveSameDimension(packet, Math.sqrt(distanceSq));
 			}
 		} else if (interdimensional.get() || sender.interdimensional.get()) {
-			receiveDifferentDimension(packet);
+			return receiveDifferentDimension(packet);
 		}
+		return false;
 	}
 
 	@Override
@@ -0,0 +1,30 @@
+package net.clgd.ccemux.recording;
+
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Writes the frames of an exported recording to an animated image.
+ */
+interface AnimationWriter extends Closeable {
+	/**
+	 * The longest a single frame may be shown for. Longer holds must be split into several frames.
+	 *
+	 * @return The maximum delay, in milliseconds.
+	 */
+	int getMaxDelay();
+
+	/**
+	 * Write a single frame. Every frame is the same size.
+	 *
+	 * @param image The frame, an RGB image backed by an {@code int[]}. This is reused for the next frame, so should not
+	 *              be kept.
+	 * @param delay How long to show the frame for, in milliseconds, at most {@link #getMaxDelay()}.
+	 * @throws IOException              If the frame could not be written.
+	 * @throws IllegalArgumentException If the delay is longer than this format allows.
+	 */
+	void writeFrame(@Nonnull BufferedImage image, int delay) throws IOException;
+}
@@ -0,0 +1,205 @@
+package net.clgd.ccemux.recording;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Writes an animated PNG.
+ * <p>
+ * Unlike GIFs, APNGs keep every colour exactly. Each frame only covers the rectangle which changed since the previous
+ * one, so a blinking cursor or a single updated line costs very little. ImageIO has no APNG support, so the chunks are
+ * written by hand.
+ */
+final class ApngWriter implements AnimationWriter {
+	private static final byte[] SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+
+	/**
+	 * Where the frame count is stored in the {@code acTL} chunk. This is only known once every frame has been written.
+	 */
+	private static final long FRAME_COUNT_OFFSET = SIGNATURE.length + (12 + 13) + 8;
+
+	/**
+	 * Frame delays are written as an unsigned 16 bit number of milliseconds.
+	 */
+	private static final int MAX_DELAY = 0xFFFF;
+
+	private final RandomAccessFile file;
+
+	private final ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+	private final DataOutputStream chunkData = new DataOutputStream(chunk);
+	private final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+	private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+	private final CRC32 crc = new CRC32();
+
+	private int[] previous;
+	private int frames;
+	private int sequence;
+	private byte[] row = new byte[0];
+
+	ApngWriter(@Nonnull File file) throws IOException {
+		this.file = new RandomAccessFile(file, "rw");
+		this.file.setLength(0);
+		this.file.write(SIGNATURE);
+	}
+
+	@Override
+	public int getMaxDelay() {
+		return MAX_DELAY;
+	}
+
+	@Override
+	public void writeFrame(@Nonnull BufferedImage image, int delay) throws IOException {
+		if (delay > MAX_DELAY) throw new IllegalArgumentException("Delay " + delay + "ms is longer than an APNG frame allows");
+
+		int width = image.getWidth(), height = image.getHeight();
+		int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+
+		if (previous == null) {
+			previous = new int[width * height];
+			writeHeader(width, height);
+		}
+
+		// Find the rectangle which has changed since the last frame. The first frame always covers the whole image.
+		int left = 0, top = 0, right = width, bottom = height;
+		if (frames > 0) {
+			left = width;
+			top = height;
+			right = 0;
+			bottom = 0;
+			for (int y = 0; y < height; y++) {
+				for (int x = 0, i = y * width; x < width; x++, i++) {
+					if (pixels[i] == previous[i]) continue;
+					if (x < left) left = x;
+					if (x >= right) right = x + 1;
+					if (y < top) top = y;
+					bottom = y + 1;
+				}
+			}
+
+			// Nothing changed, so just extend the previous frame with a single unchanged pixel.
+			if (left >= right) {
+				left = top = 0;
+				right = bottom = 1;
+			}
+		}
+
+		for (int y = top; y < bottom; y++) System.arraycopy(pixels, y * width + left, previous, y * width + left, right - left);
+
+		startChunk("fcTL");
+		chunkData.writeInt(sequence++);
+		chunkData.writeInt(right - left);
+		chunkData.writeInt(bottom - top);
+		chunkData.writeInt(left);
+		chunkData.writeInt(top);
+		chunkData.writeShort(delay);
+		chunkData.writeShort(1000);
+		chunkData.writeByte(0); // APNG_DISPOSE_OP_NONE
+		chunkData.writeByte(0); // APNG_BLEND_OP_SOURCE
+		endChunk();
+
+		if (frames == 0) {
+			startChunk("IDAT");
+		} else {
+			startChunk("fdAT");
+			chunkData.writeInt(sequence++);
+		}
+		compress(pixels, width, left, top, right, bottom);
+		compressed.writeTo(chunkData);
+		endChunk();
+
+		frames++;
+	}
+
+	private void writeHeader(int width, int height) throws IOException {
+		startChunk("IHDR");
+		chunkData.writeInt(width);
+		chunkData.writeInt(height);
+		chunkData.writeByte(8); // Bit depth
+		chunkData.writeByte(2); // Truecolour
+		chunkData.writeByte(0); // Compression
+		chunkData.writeByte(0); // Filter
+		chunkData.writeByte(0); // Interlace
+		endChunk();
+
+		startChunk("acTL");
+		chunkData.writeInt(0); // Frame count, filled in by close()
+		chunkData.writeInt(0); // Loop forever
+		endChunk();
+	}
+
+	/**
+	 * Compress part of the image into {@link #compressed}, using the "sub" filter on each row.
+	 */
+	private void compress(int[] pixels, int stride, int left, int top, int right, int bottom) throws IOException {
+		int width = right - left;
+		if (row.length < 1 + width * 3) row = new byte[1 + width * 3];
+
+		compressed.reset();
+		deflater.reset();
+		try (DeflaterOutputStream out = new DeflaterOutputStream(compressed, deflater, 8192)) {
+			for (int y = top; y < bottom; y++) {
+				row[0] = 1;
+				int previous = 0;
+				for (int x = 0, i = y * stride + left; x < width; x++, i++) {
+					int pixel = pixels[i];
+					row[1 + x * 3] = (byte) ((pixel >> 16) - (previous >> 16));
+					row[2 + x * 3] = (byte) ((pixel >> 8) - (previous >> 8));
+					row[3 + x * 3] = (byte) (pixel - previous);
+					previous = pixel;
+				}
+				out.write(row, 0, 1 + width * 3);
+			}
+		}
+	}
+
+	private void startChunk(String type) throws IOException {
+		chunk.reset();
+		chunkData.write(type.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private void endChunk() throws IOException {
+		byte[] data = chunk.toByteArray();
+		crc.reset();
+		crc.update(data);
+
+		file.writeInt(data.length - 4);
+		file.write(data);
+		file.writeInt((int) crc.getValue());
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			startChunk("IEND");
+			endChunk();
+
+			// Fill in the frame count, and update the acTL chunk's checksum to match.
+			if (frames > 0) {
+				file.seek(FRAME_COUNT_OFFSET);
+				file.writeInt(frames);
+
+				startChunk("acTL");
+				chunkData.writeInt(frames);
+				chunkData.writeInt(0);
+				crc.reset();
+				crc.update(chunk.toByteArray());
+				file.writeInt(0);
+				file.writeInt((int) crc.getValue());
+			}
+		} finally {
+			deflater.end();
+			file.close();
+		}
+	}
+}
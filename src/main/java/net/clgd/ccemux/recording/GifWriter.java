@@ -0,0 +1,104 @@
+package net.clgd.ccemux.recording;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Writes an animated GIF using ImageIO's GIF writer, which reduces each frame to a 256 colour palette.
+ */
+final class GifWriter implements AnimationWriter {
+	private static final String FORMAT = "javax_imageio_gif_image_1.0";
+
+	/**
+	 * GIF delays are an unsigned 16 bit number of hundredths of a second. This leaves room for the rounding carried
+	 * over from earlier frames.
+	 */
+	private static final int MAX_DELAY = 655_000;
+
+	private final ImageOutputStream stream;
+	private final ImageWriter writer;
+
+	private boolean first = true;
+
+	/**
+	 * The time written so far, in milliseconds and in the hundredths of a second GIFs use, so rounding errors don't
+	 * add up over a long recording.
+	 */
+	private long elapsedMillis, elapsedCentis;
+
+	GifWriter(@Nonnull File file) throws IOException {
+		stream = ImageIO.createImageOutputStream(file);
+		if (stream == null) throw new IOException("Cannot write to " + file);
+
+		writer = ImageIO.getImageWritersByFormatName("gif").next();
+		writer.setOutput(stream);
+		writer.prepareWriteSequence(null);
+	}
+
+	@Override
+	public int getMaxDelay() {
+		return MAX_DELAY;
+	}
+
+	@Override
+	public void writeFrame(@Nonnull BufferedImage image, int delay) throws IOException {
+		if (delay > MAX_DELAY) throw new IllegalArgumentException("Delay " + delay + "ms is longer than a GIF frame allows");
+
+		elapsedMillis += delay;
+		long centis = Math.max(1, (elapsedMillis + 5) / 10 - elapsedCentis);
+		elapsedCentis += centis;
+
+		IIOMetadata metadata = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(image), null);
+		IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(FORMAT);
+
+		IIOMetadataNode control = child(root, "GraphicControlExtension");
+		control.setAttribute("disposalMethod", "none");
+		control.setAttribute("userInputFlag", "FALSE");
+		control.setAttribute("transparentColorFlag", "FALSE");
+		control.setAttribute("transparentColorIndex", "0");
+		control.setAttribute("delayTime", Long.toString(centis));
+
+		if (first) {
+			// Loop forever
+			IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+			loop.setAttribute("applicationID", "NETSCAPE");
+			loop.setAttribute("authenticationCode", "2.0");
+			loop.setUserObject(new byte[] { 1, 0, 0 });
+			child(root, "ApplicationExtensions").appendChild(loop);
+			first = false;
+		}
+
+		metadata.setFromTree(FORMAT, root);
+		writer.writeToSequence(new IIOImage(image, null, metadata), null);
+	}
+
+	private static IIOMetadataNode child(IIOMetadataNode root, String name) {
+		for (int i = 0; i < root.getLength(); i++) {
+			if (root.item(i).getNodeName().equalsIgnoreCase(name)) return (IIOMetadataNode) root.item(i);
+		}
+
+		IIOMetadataNode node = new IIOMetadataNode(name);
+		root.appendChild(node);
+		return node;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			writer.endWriteSequence();
+		} finally {
+			writer.dispose();
+			stream.close();
+		}
+	}
+}
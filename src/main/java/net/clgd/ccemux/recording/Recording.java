@@ -0,0 +1,70 @@
+package net.clgd.ccemux.recording;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Constants and helpers for the recording format.
+ * <p>
+ * A recording is a gzip stream, starting with a header of {@link #MAGIC}, the format {@link #VERSION}, the length of
+ * a tick in milliseconds (as a varint) and the computer's terminal scale (as a float). This is followed by a series of
+ * frames, one for each tick on which the terminal changed. Each frame starts with the number of ticks since the last
+ * frame (as a varint), followed by any number of operations, and ends with {@link #OP_END}:
+ * <ul>
+ * <li>{@link #OP_SIZE}: the terminal's width and height as varints. The cells are cleared, and every row follows.</li>
+ * <li>{@link #OP_ROW}: a row index as a varint, then each cell in that row as a character byte followed by a colour
+ * byte, holding the text colour in the high nibble and the background colour in the low nibble.</li>
+ * <li>{@link #OP_CURSOR}: the cursor's position as zigzag varints, whether it is blinking, and its colour.</li>
+ * <li>{@link #OP_PALETTE}: the number of changed colours, followed by each colour's index and its red, green and
+ * blue bytes.</li>
+ * </ul>
+ * Colours are indexed in the same way as {@link net.clgd.ccemux.api.rendering.TerminalSnapshot}. As only changes are
+ * stored, and the stream is compressed as it is written, an idle terminal costs almost nothing to record.
+ */
+final class Recording {
+	static final int MAGIC = 0x43435852; // "CCXR"
+	static final int VERSION = 1;
+
+	static final int OP_END = 0;
+	static final int OP_SIZE = 1;
+	static final int OP_ROW = 2;
+	static final int OP_CURSOR = 3;
+	static final int OP_PALETTE = 4;
+
+	/**
+	 * The file extension used for recordings.
+	 */
+	static final String EXTENSION = ".ccrec";
+
+	private Recording() {
+	}
+
+	static void writeVarInt(DataOutput out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte(value & 0x7F | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	static int readVarInt(DataInput in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) return value;
+		}
+
+		throw new IOException("Malformed varint");
+	}
+
+	static void writeSignedVarInt(DataOutput out, int value) throws IOException {
+		writeVarInt(out, value << 1 ^ value >> 31);
+	}
+
+	static int readSignedVarInt(DataInput in) throws IOException {
+		int value = readVarInt(in);
+		return value >>> 1 ^ -(value & 1);
+	}
+}
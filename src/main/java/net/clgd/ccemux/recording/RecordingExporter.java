@@ -0,0 +1,136 @@
+package net.clgd.ccemux.recording;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+
+import net.clgd.ccemux.api.rendering.TerminalRasterizer;
+import net.clgd.ccemux.api.rendering.TerminalSnapshot;
+import net.clgd.ccemux.rendering.awt.AWTTerminalFont;
+
+/**
+ * Converts a recording into an animated GIF or PNG.
+ * <p>
+ * The recording is replayed one frame at a time, so exporting uses the same amount of memory however long the
+ * recording is. Extra frames are added wherever the cursor blinks, and wherever the terminal stays the same for longer
+ * than a single frame of the output format can last.
+ */
+public final class RecordingExporter {
+	/**
+	 * How long the cursor stays on or off for, matching {@link net.clgd.ccemux.api.Utils#getGlobalCursorBlink()}.
+	 */
+	private static final int BLINK_MILLIS = 400;
+
+	/**
+	 * How long to show the last frame for, as nothing comes after it.
+	 */
+	private static final int LAST_FRAME_MILLIS = 1000;
+
+	private RecordingExporter() {
+	}
+
+	/**
+	 * Export a recording, drawing it at the scale it was recorded at.
+	 *
+	 * @param recording The recording to export.
+	 * @param output    The file to write. Files ending in {@code .gif} are written as GIFs, and those ending in
+	 *                  {@code .png} or {@code .apng} as animated PNGs.
+	 * @return The number of frames written.
+	 * @throws IOException If the recording could not be read, or the output could not be written.
+	 */
+	public static int export(@Nonnull File recording, @Nonnull File output) throws IOException {
+		try (RecordingReader reader = new RecordingReader(new FileInputStream(recording))) {
+			TerminalSnapshot terminal = reader.getTerminal();
+			int tickMillis = reader.getTickMillis();
+
+			long tick = reader.nextFrame();
+			if (tick < 0 || !reader.applyFrame()) throw new IOException("Recording is empty");
+
+			double termScale = reader.getTermScale();
+			TerminalRasterizer rasterizer = new TerminalRasterizer(
+				AWTTerminalFont.getBestFont().getAtlas((int) (6 * termScale), (int) (9 * termScale)), (int) (2 * termScale));
+
+			// The animation is the size of the terminal when recording started.
+			Frame frame = new Frame(rasterizer.getWidth(terminal), rasterizer.getHeight(terminal));
+
+			int frames = 0;
+			try (AnimationWriter writer = createWriter(output)) {
+				long time = tick * tickMillis;
+				while (true) {
+					long nextTick = reader.nextFrame();
+					long next = nextTick >= 0 ? nextTick * tickMillis : time + LAST_FRAME_MILLIS;
+
+					// Hold this frame until the next one, switching the cursor on and off if it is blinking.
+					boolean blink = reader.isCursorBlinking();
+					while (time < next) {
+						long until = blink ? Math.min(next, (time / BLINK_MILLIS + 1) * BLINK_MILLIS) : next;
+						terminal.setCursor(terminal.getCursorX(), terminal.getCursorY(), blink && time / BLINK_MILLIS % 2 == 0, terminal.getCursorColour());
+
+						frame.draw(rasterizer, terminal);
+						for (long held = until - time; held > 0; ) {
+							int delay = (int) Math.min(held, writer.getMaxDelay());
+							writer.writeFrame(frame.image, delay);
+							frames++;
+							held -= delay;
+						}
+						time = until;
+					}
+
+					if (nextTick < 0 || !reader.applyFrame()) break;
+				}
+			}
+
+			return frames;
+		}
+	}
+
+	private static AnimationWriter createWriter(File output) throws IOException {
+		String name = output.getName().toLowerCase(Locale.ROOT);
+		if (name.endsWith(".gif")) return new GifWriter(output);
+		if (name.endsWith(".png") || name.endsWith(".apng")) return new ApngWriter(output);
+		throw new IOException("Unknown animation format for " + output.getName() + ", should be .gif, .png or .apng");
+	}
+
+	/**
+	 * The image each frame is drawn into.
+	 */
+	private static final class Frame {
+		final BufferedImage image;
+		final int[] pixels;
+
+		/**
+		 * A buffer to draw into if the terminal is resized part way through the recording, which is then cropped or
+		 * padded to fit the frame.
+		 */
+		private int[] resized = new int[0];
+
+		Frame(int width, int height) {
+			image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+		}
+
+		void draw(TerminalRasterizer rasterizer, TerminalSnapshot terminal) {
+			int width = rasterizer.getWidth(terminal), height = rasterizer.getHeight(terminal);
+			int frameWidth = image.getWidth(), frameHeight = image.getHeight();
+			if (width == frameWidth && height == frameHeight) {
+				rasterizer.rasterize(terminal, pixels);
+				return;
+			}
+
+			if (resized.length < width * height) resized = new int[width * height];
+			rasterizer.rasterize(terminal, resized);
+
+			Arrays.fill(pixels, 0);
+			int copyWidth = Math.min(width, frameWidth);
+			for (int y = 0; y < Math.min(height, frameHeight); y++) {
+				System.arraycopy(resized, y * width, pixels, y * frameWidth, copyWidth);
+			}
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package net.clgd.ccemux.recording;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import javax.annotation.Nonnull;
+
+import net.clgd.ccemux.api.rendering.TerminalSnapshot;
+
+import static net.clgd.ccemux.recording.Recording.*;
+
+/**
+ * Replays a recording written by {@link TerminalRecorder}, one frame at a time.
+ * <p>
+ * Reading a frame is split into two steps, so that callers can find out when the next frame happens before the
+ * terminal changes: {@link #nextFrame()} reads the frame's time, and {@link #applyFrame()} then updates
+ * {@link #getTerminal()} with its contents.
+ */
+public final class RecordingReader implements Closeable {
+	private final DataInputStream in;
+	private final int tickMillis;
+	private final float termScale;
+
+	private final TerminalSnapshot terminal = new TerminalSnapshot();
+	private boolean cursorBlink;
+
+	private long tick;
+	private boolean pending;
+
+	public RecordingReader(@Nonnull InputStream stream) throws IOException {
+		this.in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(stream)));
+
+		if (in.readInt() != MAGIC) throw new IOException("Not a CCEmuX recording");
+
+		int version = in.readUnsignedByte();
+		if (version != VERSION) throw new IOException("Unsupported recording version " + version);
+
+		tickMillis = readVarInt(in);
+		termScale = in.readFloat();
+	}
+
+	/**
+	 * The length of a tick when this was recorded, in milliseconds.
+	 */
+	public int getTickMillis() {
+		return tickMillis;
+	}
+
+	/**
+	 * The scale of the recorded computer's terminal.
+	 */
+	public float getTermScale() {
+		return termScale;
+	}
+
+	/**
+	 * Read the time of the next frame, without applying it.
+	 *
+	 * @return The tick of the next frame, counted from the start of the recording, or -1 if there are no more frames.
+	 * A recording which was cut short (such as if the emulator crashed) ends at the last complete frame.
+	 * @throws IOException If the recording could not be read.
+	 */
+	public long nextFrame() throws IOException {
+		if (pending) throw new IllegalStateException("The current frame has not been applied");
+
+		try {
+			tick += readVarInt(in);
+		} catch (EOFException e) {
+			return -1;
+		}
+
+		pending = true;
+		return tick;
+	}
+
+	/**
+	 * Apply the frame read by {@link #nextFrame()} to {@link #getTerminal()}.
+	 *
+	 * @return Whether the frame was applied. This is false if the recording ends part way through the frame.
+	 * @throws IOException If the recording could not be read, or is corrupt.
+	 */
+	public boolean applyFrame() throws IOException {
+		if (!pending) throw new IllegalStateException("No frame has been read");
+		pending = false;
+
+		try {
+			while (true) {
+				int op = in.readUnsignedByte();
+				switch (op) {
+					case OP_END:
+						return true;
+					case OP_SIZE:
+						terminal.setSize(readVarInt(in), readVarInt(in));
+						break;
+					case OP_ROW: {
+						int y = readVarInt(in);
+						if (y >= terminal.getHeight()) throw new IOException("Row " + y + " is out of bounds");
+						for (int x = 0; x < terminal.getWidth(); x++) {
+							char c = (char) in.readUnsignedByte();
+							int colours = in.readUnsignedByte();
+							terminal.setCell(x, y, c, colours >> 4, colours & 0xF);
+						}
+						break;
+					}
+					case OP_CURSOR: {
+						int x = readSignedVarInt(in), y = readSignedVarInt(in);
+						cursorBlink = in.readBoolean();
+						terminal.setCursor(x, y, cursorBlink, in.readUnsignedByte());
+						break;
+					}
+					case OP_PALETTE: {
+						int count = in.readUnsignedByte();
+						for (int i = 0; i < count; i++) {
+							int colour = in.readUnsignedByte();
+							terminal.setPaletteColour(colour & 0xF, in.readUnsignedByte() << 16 | in.readUnsignedByte() << 8 | in.readUnsignedByte());
+						}
+						break;
+					}
+					default:
+						throw new IOException("Unknown operation " + op);
+				}
+			}
+		} catch (EOFException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * The terminal, as of the last applied frame. The cursor is visible whenever it is blinking, so callers should
+	 * hide it themselves for the off half of the blink.
+	 */
+	@Nonnull
+	public TerminalSnapshot getTerminal() {
+		return terminal;
+	}
+
+	/**
+	 * Whether the cursor was blinking as of the last applied frame.
+	 */
+	public boolean isCursorBlinking() {
+		return cursorBlink;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+}
@@ -0,0 +1,183 @@
+package net.clgd.ccemux.recording;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.Nonnull;
+
+import net.clgd.ccemux.api.emulation.EmulatedTerminal;
+import net.clgd.ccemux.api.rendering.TerminalSnapshot;
+import net.clgd.ccemux.emulation.CCEmuX;
+
+import static net.clgd.ccemux.recording.Recording.*;
+
+/**
+ * Streams the changes to a terminal into a recording file, which can later be turned into an animation with
+ * {@link RecordingExporter}.
+ * <p>
+ * Each {@link #record(long)} only copies the rows which have changed since the last one, and the file is compressed as
+ * it is written, so recordings can run for as long as needed without using any more memory.
+ */
+public final class TerminalRecorder implements Closeable {
+	/**
+	 * The file extension used for recordings.
+	 */
+	public static final String EXTENSION = Recording.EXTENSION;
+
+	private static final int BUFFER_SIZE = 16 * 1024;
+
+	private final EmulatedTerminal terminal;
+	private final File file;
+	private final DataOutputStream out;
+
+	private final TerminalSnapshot snapshot = new TerminalSnapshot();
+	private final BitSet rows = new BitSet();
+	private long version = -1;
+
+	/**
+	 * The state as of the last frame, used to only write what has changed.
+	 */
+	private final int[] palette = new int[16];
+	private boolean paletteWritten;
+	private int cursorX = Integer.MIN_VALUE, cursorY = Integer.MIN_VALUE, cursorColour;
+	private boolean cursorBlink;
+
+	private long lastTick;
+	private boolean inFrame;
+	private boolean closed;
+
+	/**
+	 * Start recording a terminal, writing its current contents as the first frame.
+	 *
+	 * @param terminal  The terminal to record.
+	 * @param termScale The scale the terminal is drawn at, used as the default when exporting.
+	 * @param file      The file to record to.
+	 * @param tick      The current tick.
+	 * @throws IOException If the file could not be written to.
+	 */
+	public TerminalRecorder(@Nonnull EmulatedTerminal terminal, double termScale, @Nonnull File file, long tick) throws IOException {
+		this.terminal = terminal;
+		this.file = file;
+		this.out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(file), BUFFER_SIZE), BUFFER_SIZE));
+
+		try {
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+			writeVarInt(out, (int) Math.round(CCEmuX.TICK_LENGTH * 1000));
+			out.writeFloat((float) termScale);
+
+			lastTick = tick;
+			record(tick);
+		} catch (IOException e) {
+			out.close();
+			throw e;
+		}
+	}
+
+	@Nonnull
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Write a frame for anything which has changed since the last one. Nothing is written if the terminal is unchanged.
+	 *
+	 * @param tick The current tick.
+	 * @throws IOException If the frame could not be written.
+	 */
+	public synchronized void record(long tick) throws IOException {
+		if (closed) return;
+
+		boolean resized, blink;
+		synchronized (terminal) {
+			version = terminal.getChangedRows(version, rows);
+			resized = snapshot.capture(terminal, rows);
+			blink = terminal.getCursorBlink();
+		}
+
+		int width = snapshot.getWidth(), height = snapshot.getHeight();
+		if (resized) {
+			beginFrame(tick);
+			out.writeByte(OP_SIZE);
+			writeVarInt(out, width);
+			writeVarInt(out, height);
+			rows.set(0, height);
+		}
+
+		for (int y = rows.nextSetBit(0); y >= 0 && y < height; y = rows.nextSetBit(y + 1)) {
+			beginFrame(tick);
+			out.writeByte(OP_ROW);
+			writeVarInt(out, y);
+			for (int x = 0; x < width; x++) {
+				out.writeByte(snapshot.getChar(x, y));
+				out.writeByte(snapshot.getForeground(x, y) << 4 | snapshot.getBackground(x, y));
+			}
+		}
+
+		int x = snapshot.getCursorX(), y = snapshot.getCursorY(), colour = snapshot.getCursorColour();
+		if (x != cursorX || y != cursorY || colour != cursorColour || blink != cursorBlink) {
+			beginFrame(tick);
+			out.writeByte(OP_CURSOR);
+			writeSignedVarInt(out, x);
+			writeSignedVarInt(out, y);
+			out.writeBoolean(blink);
+			out.writeByte(colour);
+
+			cursorX = x;
+			cursorY = y;
+			cursorColour = colour;
+			cursorBlink = blink;
+		}
+
+		int changed = 0;
+		for (int i = 0; i < 16; i++) {
+			if (!paletteWritten || palette[i] != snapshot.getPaletteColour(i)) changed++;
+		}
+		if (changed > 0) {
+			beginFrame(tick);
+			out.writeByte(OP_PALETTE);
+			out.writeByte(changed);
+			for (int i = 0; i < 16; i++) {
+				int rgb = snapshot.getPaletteColour(i);
+				if (paletteWritten && palette[i] == rgb) continue;
+
+				palette[i] = rgb;
+				out.writeByte(i);
+				out.writeByte(rgb >> 16);
+				out.writeByte(rgb >> 8);
+				out.writeByte(rgb);
+			}
+			paletteWritten = true;
+		}
+
+		if (inFrame) {
+			out.writeByte(OP_END);
+			inFrame = false;
+		}
+	}
+
+	private void beginFrame(long tick) throws IOException {
+		if (inFrame) return;
+
+		writeVarInt(out, (int) (tick - lastTick));
+		lastTick = tick;
+		inFrame = true;
+	}
+
+	/**
+	 * Stop recording, and finish writing the file.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) return;
+
+		closed = true;
+		out.close();
+	}
+}
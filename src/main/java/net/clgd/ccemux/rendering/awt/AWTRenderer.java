@@ -27,7 +27,6 @@ import net.clgd.ccemux.api.Utils;
 import net.clgd.ccemux.api.emulation.EmuConfig;
 import net.clgd.ccemux.api.emulation.EmulatedComputer;
 import net.clgd.ccemux.api.rendering.Renderer;
-import net.clgd.ccemux.api.rendering.TerminalFont;
 import net.clgd.ccemux.plugins.builtin.AWTPlugin.AWTConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,15 +41,8 @@ public class AWTRenderer implements Renderer, KeyListener, MouseListener, MouseM
 
 	private static final double ACTION_TIME = 0.5;
 
-	private static AWTTerminalFont font;
-
 	private AWTTerminalFont getFont() {
-		AWTTerminalFont font = AWTRenderer.font;
-		return font != null ? font : (AWTRenderer.font = loadBestFont());
-	}
-
-	private static AWTTerminalFont loadBestFont() {
-		return TerminalFont.getBest(AWTTerminalFont::new);
+		return AWTTerminalFont.getBestFont();
 	}
 
 	private final List<Renderer.Listener> listeners = new ArrayList<>();
@@ -86,6 +78,8 @@ public class AWTRenderer implements Renderer, KeyListener, MouseListener, MouseM
 
 	private final BitSet keysDown = new BitSet(256);
 
+	private final CaptureThrottle throttle = new CaptureThrottle();
+
 	public AWTRenderer(EmulatedComputer computer, EmuConfig config, AWTConfig rendererConfig) {
 		frame = new Frame(EMU_WINDOW_TITLE);
 
@@ -99,7 +93,7 @@ public class AWTRenderer implements Renderer, KeyListener, MouseListener, MouseM
 
 		// setMinimumSize(new Dimension(300, 200));
 
-		termComponent = new TerminalComponent(computer.terminal, computer.getTermScale());
+		termComponent = new TerminalComponent(computer, computer.getTermScale());
 		frame.add(termComponent, BorderLayout.CENTER);
 
 		// required for tab to work
@@ -214,6 +208,8 @@ public class AWTRenderer implements Renderer, KeyListener, MouseListener, MouseM
 		frame.setTitle(getWindowTitle());
 		blinkLockedTime = Math.max(0, blinkLockedTime - dt);
 		termComponent.blinkLocked = blinkLockedTime > 0;
+		termComponent.incremental = rendererConfig.incrementalRepaint.get();
+		RenderScheduler.get().setMaxFrameRate(rendererConfig.maxFrameRate.get());
 
 		if (isVisible()) {
 			// Handle action keys
@@ -241,6 +237,7 @@ public class AWTRenderer implements Renderer, KeyListener, MouseListener, MouseM
 			boolean doRepaint = computer.terminal.getAndClearChanged();
 			if (computer.terminal.getPalette().isChanged()) {
 				doRepaint = true;
+				termComponent.damageAll();
 				computer.terminal.getPalette().setChanged(false);
 			}
 
@@ -250,11 +247,11 @@ public class AWTRenderer implements Renderer, KeyListener, MouseListener, MouseM
 
 			lastBlink = Utils.getGlobalCursorBlink();
 
-			if (doRepaint) {
+			if (throttle.advance(frame, dt, doRepaint, rendererConfig.unfocusedFrameRate.get())) {
 				// TODO
 				// termComponent.cursorChar = computer.cursorChar;
 				//AWTTerminalFont font = (AWTTerminalFont) TerminalFonts.getFontsFor(getClass()).getBest(this);
-				termComponent.render(getFont());
+				termComponent.capture(getFont());
 			}
 		}
 	}
@@ -318,6 +315,19 @@ public class AWTRenderer implements Renderer, KeyListener, MouseListener, MouseM
 			return;
 		}
 
+		if (!hasModifier && e.getKeyCode() == KeyEvent.VK_F3) {
+			if (computer.isRecording()) {
+				computer.stopRecording();
+			} else {
+				try {
+					computer.startRecording();
+				} catch (IOException ex) {
+					log.error("Cannot start recording", ex);
+				}
+			}
+			return;
+		}
+
 		if (allowKeyEvents()) {
 			int code = translateToCC(e.getKeyCode(), e.getKeyLocation());
 			if (code >= 0) {
@@ -332,6 +342,7 @@ public class AWTRenderer implements Renderer, KeyListener, MouseListener, MouseM
 			if (key == KeyEvent.VK_S && shutdownTimer < 0) shutdownTimer = 0;
 			if (key == KeyEvent.VK_R && rebootTimer < 0) rebootTimer = 0;
 			if (key == KeyEvent.VK_T && terminateTimer < 0) terminateTimer = 0;
+			if (!allowKeyEvents()) computer.wake();
 		}
 	}
 
@@ -411,6 +422,16 @@ public class AWTRenderer implements Renderer, KeyListener, MouseListener, MouseM
 		return frame.isVisible();
 	}
 
+	@Override
+	public boolean isWatched() {
+		return frame.isVisible() && (frame.getExtendedState() & Frame.ICONIFIED) == 0;
+	}
+
+	@Override
+	public long getFrameCount() {
+		return termComponent.frames;
+	}
+
 	@Override
 	public void setVisible(boolean visible) {
 		frame.setVisible(visible);
@@ -418,6 +439,7 @@ public class AWTRenderer implements Renderer, KeyListener, MouseListener, MouseM
 
 	@Override
 	public void dispose() {
+		termComponent.dispose();
 		frame.dispose();
 	}
 
@@ -4,14 +4,30 @@ import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import javax.annotation.Nonnull;
 import javax.imageio.ImageIO;
 
+import net.clgd.ccemux.api.rendering.GlyphAtlas;
 import net.clgd.ccemux.api.rendering.TerminalFont;
 
 public class AWTTerminalFont extends TerminalFont {
+	private static volatile AWTTerminalFont bestFont;
+
+	/**
+	 * Get the best available font. This is loaded once and then shared between every window and screenshot.
+	 */
+	public static AWTTerminalFont getBestFont() {
+		AWTTerminalFont font = bestFont;
+		return font != null ? font : (bestFont = TerminalFont.getBest(AWTTerminalFont::new));
+	}
+
 	private final BufferedImage base;
 
+	private final Map<Long, GlyphAtlas> atlases = new LinkedHashMap<>();
+
 	public AWTTerminalFont(BufferedImage base) {
 		super(base.getWidth(), base.getHeight());
 		this.base = base;
@@ -28,4 +44,19 @@ public class AWTTerminalFont extends TerminalFont {
 	public BufferedImage getBitmap() {
 		return base;
 	}
+
+	/**
+	 * Get an atlas of this font's glyphs at a given size. Atlases are built once and then cached.
+	 *
+	 * @param glyphWidth  The width to draw each glyph at.
+	 * @param glyphHeight The height to draw each glyph at.
+	 * @return The atlas for this size.
+	 */
+	@Nonnull
+	public synchronized GlyphAtlas getAtlas(int glyphWidth, int glyphHeight) {
+		return atlases.computeIfAbsent((long) glyphWidth << 32 | glyphHeight, k -> {
+			int[] pixels = base.getRGB(0, 0, base.getWidth(), base.getHeight(), null, 0, base.getWidth());
+			return new GlyphAtlas(this, pixels, base.getWidth(), glyphWidth, glyphHeight);
+		});
+	}
 }
@@ -0,0 +1,34 @@
+package net.clgd.ccemux.rendering.awt;
+
+import java.awt.Frame;
+
+/**
+ * Decides when a window should next capture its terminal. Nothing is captured while the window is minimised, and
+ * windows without focus are captured at a lower rate.
+ * <p>
+ * Changes made while a capture is held back are remembered, so the window catches up as soon as it is allowed to.
+ */
+final class CaptureThrottle {
+	private boolean pending = true;
+	private double elapsed;
+
+	/**
+	 * @param frame              The window the terminal is drawn in.
+	 * @param dt                 The time since the last tick, in seconds.
+	 * @param changed            Whether the terminal has changed since the last tick.
+	 * @param unfocusedFrameRate The maximum number of captures per second while the window does not have focus, or 0
+	 *                           for no limit.
+	 * @return Whether the terminal should be captured now.
+	 */
+	boolean advance(Frame frame, double dt, boolean changed, int unfocusedFrameRate) {
+		pending |= changed;
+		elapsed += dt;
+
+		if (!pending || (frame.getExtendedState() & Frame.ICONIFIED) != 0) return false;
+		if (unfocusedFrameRate > 0 && elapsed < 1.0 / unfocusedFrameRate && !frame.isFocused()) return false;
+
+		pending = false;
+		elapsed = 0;
+		return true;
+	}
+}
@@ -0,0 +1,456 @@
+package net.clgd.ccemux.rendering.awt;
+
+import java.awt.*;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.awt.event.*;
+import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import net.clgd.ccemux.api.Utils;
+import net.clgd.ccemux.api.emulation.EmulatedComputer;
+import net.clgd.ccemux.api.rendering.TerminalRasterizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static net.clgd.ccemux.rendering.awt.KeyTranslator.translateToCC;
+import static net.clgd.ccemux.rendering.awt.MouseTranslator.swingToCC;
+
+/**
+ * A single window showing every computer using the {@link DashboardRenderer}.
+ * <p>
+ * Computers are tiled as thumbnails, which all share one glyph atlas and are shrunk so every computer fits in the
+ * window. Clicking a thumbnail zooms in on that computer, drawing it at full size and sending it any input. The whole
+ * window is drawn by the {@link RenderScheduler}, and thumbnails are only redrawn when their terminal changes.
+ */
+final class Dashboard extends Canvas implements RenderScheduler.Target, KeyListener, MouseListener, MouseMotionListener, MouseWheelListener {
+	private static final long serialVersionUID = 2871870347862263437L;
+	private static final Logger log = LoggerFactory.getLogger(Dashboard.class);
+
+	private static final int GAP = 8;
+	private static final int LABEL_HEIGHT = 16;
+	private static final Color BACKGROUND = new Color(0x1E1E1E);
+	private static final Color LABEL = new Color(0xCCCCCC);
+
+	private static Dashboard instance;
+
+	/**
+	 * Get the dashboard, opening a new window if needed.
+	 */
+	static synchronized Dashboard get() {
+		if (instance == null) instance = new Dashboard();
+		return instance;
+	}
+
+	private final Frame frame;
+	private final Button back;
+	private final Label title;
+
+	private final List<DashboardTile> tiles = new CopyOnWriteArrayList<>();
+	private volatile DashboardTile zoomed;
+	private volatile double thumbnailScale = 0.5;
+
+	volatile long frames;
+
+	/**
+	 * The layout of the last frame, used to work out which thumbnail was clicked.
+	 */
+	private volatile int columns = 1, tileWidth, tileHeight;
+
+	/**
+	 * The state below is only used by the render thread.
+	 */
+	private AWTTerminalFont thumbnailFont;
+	private double thumbnailRasterizerScale;
+	private TerminalRasterizer thumbnailRasterizer;
+	private final List<DashboardTile> frameTiles = new ArrayList<>();
+	private final List<BufferedImage> frameImages = new ArrayList<>();
+
+	/**
+	 * Input state, only used by the event dispatch thread.
+	 */
+	private final BitSet keysDown = new BitSet(256);
+	private int lastDragButton = -1;
+	private Point lastDragPosition = null;
+
+	private Dashboard() {
+		frame = new Frame(AWTRenderer.EMU_WINDOW_TITLE + " - Dashboard");
+		frame.setLayout(new BorderLayout());
+
+		back = new Button("Back");
+		back.setEnabled(false);
+		back.addActionListener(e -> zoom(null));
+		title = new Label();
+
+		Panel header = new Panel(new BorderLayout());
+		header.add(back, BorderLayout.WEST);
+		header.add(title, BorderLayout.CENTER);
+		frame.add(header, BorderLayout.NORTH);
+
+		setPreferredSize(new Dimension(960, 640));
+		setBackground(BACKGROUND);
+		setFocusTraversalKeysEnabled(false);
+		addKeyListener(this);
+		addMouseListener(this);
+		addMouseMotionListener(this);
+		addMouseWheelListener(this);
+		frame.add(this, BorderLayout.CENTER);
+
+		frame.addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosing(WindowEvent e) {
+				for (DashboardTile tile : tiles) tile.close();
+			}
+		});
+		frame.addWindowFocusListener(new WindowAdapter() {
+			@Override
+			public void windowLostFocus(WindowEvent e) {
+				releaseKeys(zoomed);
+			}
+		});
+
+		frame.pack();
+		frame.setLocationRelativeTo(null);
+	}
+
+	void add(DashboardTile tile) {
+		tiles.add(tile);
+		RenderScheduler.get().request(this);
+	}
+
+	void remove(DashboardTile tile) {
+		tiles.remove(tile);
+		if (zoomed == tile) zoom(null);
+
+		synchronized (Dashboard.class) {
+			if (tiles.isEmpty() && instance == this) {
+				instance = null;
+				RenderScheduler.get().cancel(this);
+				frame.dispose();
+			} else {
+				RenderScheduler.get().request(this);
+			}
+		}
+	}
+
+	void showWindow() {
+		if (!frame.isVisible()) frame.setVisible(true);
+	}
+
+	boolean isWindowVisible() {
+		return frame.isVisible();
+	}
+
+	/**
+	 * Whether a tile can currently be seen: the window is open and not minimised, and no other tile is zoomed in on.
+	 */
+	boolean isShowing(DashboardTile tile) {
+		DashboardTile zoomed = this.zoomed;
+		return frame.isVisible() && (frame.getExtendedState() & Frame.ICONIFIED) == 0 && (zoomed == null || zoomed == tile);
+	}
+
+	Frame getFrame() {
+		return frame;
+	}
+
+	void setThumbnailScale(double scale) {
+		if (scale > 0 && scale != thumbnailScale) {
+			thumbnailScale = scale;
+			RenderScheduler.get().request(this);
+		}
+	}
+
+	/**
+	 * Request a frame, because a tile's terminal has changed. This is ignored if the tile is not currently shown.
+	 */
+	void request(DashboardTile tile) {
+		DashboardTile zoomed = this.zoomed;
+		if (zoomed == null || zoomed == tile) RenderScheduler.get().request(this);
+	}
+
+	private void zoom(DashboardTile tile) {
+		DashboardTile previous = zoomed;
+		zoomed = tile;
+		EventQueue.invokeLater(() -> {
+			releaseKeys(previous);
+			back.setEnabled(tile != null);
+			title.setText(tile == null ? "" : describe(tile.computer));
+			requestFocus();
+		});
+		RenderScheduler.get().request(this);
+	}
+
+	private static String describe(EmulatedComputer computer) {
+		String label = computer.getLabel();
+		return label == null ? "Computer #" + computer.getID() : label + " (#" + computer.getID() + ")";
+	}
+
+	@Override
+	public void paint(Graphics g) {
+		RenderScheduler.get().request(this);
+	}
+
+	@Override
+	public void update(Graphics g) {
+		paint(g);
+	}
+
+	private TerminalRasterizer getThumbnailRasterizer(AWTTerminalFont font, double scale) {
+		if (thumbnailRasterizer == null || font != thumbnailFont || scale != thumbnailRasterizerScale) {
+			thumbnailFont = font;
+			thumbnailRasterizerScale = scale;
+			thumbnailRasterizer = new TerminalRasterizer(
+				font.getAtlas(Math.max(1, (int) (6 * scale)), Math.max(1, (int) (9 * scale))), (int) (2 * scale));
+		}
+		return thumbnailRasterizer;
+	}
+
+	/**
+	 * Find the scale to draw thumbnails at, so that every tile fits on the canvas.
+	 * <p>
+	 * The configured scale is the largest used. If the tiles would not all fit at that scale, this shrinks the glyphs
+	 * a pixel at a time until they do, stopping once glyphs are a single pixel tall.
+	 *
+	 * @param count  The number of tiles.
+	 * @param cellsX The width of the widest terminal, in cells.
+	 * @param cellsY The height of the tallest terminal, in cells.
+	 */
+	private double fitThumbnailScale(int count, int cellsX, int cellsY, int width, int height) {
+		double scale = thumbnailScale;
+		if (count == 0 || cellsX == 0 || cellsY == 0) return scale;
+
+		for (int glyphHeight = (int) (9 * scale); ; ) {
+			int margin = (int) (2 * scale);
+			int tileWidth = cellsX * Math.max(1, (int) (6 * scale)) + margin * 2;
+			int tileHeight = cellsY * Math.max(1, glyphHeight) + margin * 2;
+
+			int columns = Math.max(1, (width - GAP) / (tileWidth + GAP));
+			int rows = (count + columns - 1) / columns;
+			if (GAP + rows * (tileHeight + LABEL_HEIGHT + GAP) <= height || --glyphHeight < 1) return scale;
+
+			// Pick a scale in the middle of the next glyph size down, so rounding cannot land on the wrong size.
+			scale = (glyphHeight + 0.5) / 9;
+		}
+	}
+
+	@Override
+	public void present() {
+		int width = getWidth(), height = getHeight();
+		if (!isDisplayable() || width <= 0 || height <= 0) return;
+
+		AWTTerminalFont font = AWTTerminalFont.getBestFont();
+		DashboardTile zoomed = this.zoomed;
+
+		// Bring every image up to date first, as drawing them may need to be retried if the buffer is lost.
+		frameTiles.clear();
+		frameImages.clear();
+		int tileWidth = 0, tileHeight = 0;
+		if (zoomed != null) {
+			zoomed.update();
+			frameTiles.add(zoomed);
+			frameImages.add(zoomed.full.draw(zoomed.getFullRasterizer(font)));
+		} else {
+			int cellsX = 0, cellsY = 0;
+			for (DashboardTile tile : tiles) {
+				tile.update();
+				frameTiles.add(tile);
+				cellsX = Math.max(cellsX, tile.getSnapshot().getWidth());
+				cellsY = Math.max(cellsY, tile.getSnapshot().getHeight());
+			}
+
+			TerminalRasterizer rasterizer = getThumbnailRasterizer(font,
+				fitThumbnailScale(frameTiles.size(), cellsX, cellsY, width, height));
+			for (DashboardTile tile : frameTiles) {
+				BufferedImage image = tile.thumbnail.draw(rasterizer);
+				frameImages.add(image);
+				if (image != null) {
+					tileWidth = Math.max(tileWidth, image.getWidth());
+					tileHeight = Math.max(tileHeight, image.getHeight());
+				}
+			}
+		}
+
+		int columns = Math.max(1, (width - GAP) / (tileWidth + GAP));
+		if (zoomed == null) {
+			this.columns = columns;
+			this.tileWidth = tileWidth;
+			this.tileHeight = tileHeight;
+		}
+
+		if (getBufferStrategy() == null) createBufferStrategy(2);
+		BufferStrategy strategy = getBufferStrategy();
+		do {
+			do {
+				Graphics g = strategy.getDrawGraphics();
+				g.setColor(BACKGROUND);
+				g.fillRect(0, 0, width, height);
+
+				if (zoomed != null) {
+					BufferedImage image = frameImages.get(0);
+					if (image != null) g.drawImage(image, 0, 0, null);
+				} else {
+					g.setColor(LABEL);
+					for (int i = 0; i < frameTiles.size(); i++) {
+						int x = GAP + i % columns * (tileWidth + GAP);
+						int y = GAP + i / columns * (tileHeight + LABEL_HEIGHT + GAP);
+
+						BufferedImage image = frameImages.get(i);
+						if (image != null) g.drawImage(image, x, y, null);
+						g.drawString(describe(frameTiles.get(i).computer), x, y + tileHeight + LABEL_HEIGHT - 4);
+					}
+				}
+
+				g.dispose();
+			} while (strategy.contentsRestored());
+
+			strategy.show();
+		} while (strategy.contentsLost());
+
+		frames++;
+	}
+
+	private DashboardTile getTileAt(int x, int y) {
+		int tileWidth = this.tileWidth, tileHeight = this.tileHeight;
+		if (tileWidth <= 0 || x < GAP || y < GAP) return null;
+
+		int column = (x - GAP) / (tileWidth + GAP), row = (y - GAP) / (tileHeight + LABEL_HEIGHT + GAP);
+		if (column >= columns) return null;
+
+		int index = row * columns + column;
+		return index < tiles.size() ? tiles.get(index) : null;
+	}
+
+	/**
+	 * Convert a point on the canvas to a position on the zoomed computer's terminal.
+	 */
+	private static Point mapPointToCC(EmulatedComputer computer, Point p) {
+		double scale = computer.getTermScale();
+		int margin = (int) (2 * scale);
+		return new Point((p.x - margin) / (int) (6 * scale) + 1, (p.y - margin) / (int) (9 * scale) + 1);
+	}
+
+	/**
+	 * Release any keys which are held down, such as when the window loses focus or the zoomed computer changes.
+	 */
+	private void releaseKeys(DashboardTile tile) {
+		for (int i = keysDown.nextSetBit(0); i >= 0; i = keysDown.nextSetBit(i + 1)) {
+			if (tile != null) tile.computer.releaseKey(i);
+		}
+		keysDown.clear();
+		lastDragButton = -1;
+	}
+
+	@Override
+	public void keyTyped(KeyEvent e) {
+		DashboardTile zoomed = this.zoomed;
+		if (zoomed != null && Utils.isPrintableChar(e.getKeyChar())) zoomed.computer.pressChar(e.getKeyChar());
+	}
+
+	@Override
+	public void keyPressed(KeyEvent e) {
+		DashboardTile zoomed = this.zoomed;
+		if (zoomed == null) return;
+
+		boolean hasModifier = (e.getModifiersEx() & Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx()) != 0;
+		if (hasModifier && e.getKeyCode() == KeyEvent.VK_V) {
+			try {
+				zoomed.computer.paste((String) Toolkit.getDefaultToolkit().getSystemClipboard().getData(DataFlavor.stringFlavor));
+			} catch (HeadlessException | UnsupportedFlavorException | IOException er) {
+				log.error("Could not read clipboard", er);
+			}
+			return;
+		}
+
+		if (hasModifier && e.getKeyCode() == KeyEvent.VK_T) {
+			zoomed.computer.terminate();
+			return;
+		}
+
+		int code = translateToCC(e.getKeyCode(), e.getKeyLocation());
+		if (code >= 0) {
+			zoomed.computer.pressKey(code, keysDown.get(code));
+			keysDown.set(code);
+		}
+	}
+
+	@Override
+	public void keyReleased(KeyEvent e) {
+		DashboardTile zoomed = this.zoomed;
+		int code = translateToCC(e.getKeyCode(), e.getKeyLocation());
+		if (code >= 0 && keysDown.get(code)) {
+			keysDown.clear(code);
+			if (zoomed != null) zoomed.computer.releaseKey(code);
+		}
+	}
+
+	@Override
+	public void mousePressed(MouseEvent e) {
+		DashboardTile zoomed = this.zoomed;
+		if (zoomed == null) {
+			DashboardTile tile = getTileAt(e.getX(), e.getY());
+			if (tile != null && e.getButton() == MouseEvent.BUTTON1) zoom(tile);
+			return;
+		}
+
+		int button = swingToCC(e.getButton());
+		if (button == -1) return;
+
+		Point p = mapPointToCC(zoomed.computer, e.getPoint());
+		zoomed.computer.click(button, p.x, p.y, false);
+		lastDragButton = button;
+		lastDragPosition = p;
+	}
+
+	@Override
+	public void mouseReleased(MouseEvent e) {
+		DashboardTile zoomed = this.zoomed;
+		int button = swingToCC(e.getButton());
+		if (zoomed == null || button == -1 || button != lastDragButton) return;
+
+		Point p = mapPointToCC(zoomed.computer, e.getPoint());
+		zoomed.computer.click(button, p.x, p.y, true);
+		lastDragButton = -1;
+	}
+
+	@Override
+	public void mouseDragged(MouseEvent e) {
+		DashboardTile zoomed = this.zoomed;
+		if (zoomed == null || lastDragButton == -1) return;
+
+		Point p = mapPointToCC(zoomed.computer, e.getPoint());
+		if (p.equals(lastDragPosition)) return;
+
+		zoomed.computer.drag(lastDragButton, p.x, p.y);
+		lastDragPosition = p;
+	}
+
+	@Override
+	public void mouseWheelMoved(MouseWheelEvent e) {
+		DashboardTile zoomed = this.zoomed;
+		if (zoomed == null) return;
+
+		e.consume();
+		int amt = e.getUnitsToScroll();
+		if (amt != 0) {
+			Point p = mapPointToCC(zoomed.computer, e.getPoint());
+			zoomed.computer.scroll(amt > 0 ? 1 : -1, p.x, p.y);
+		}
+	}
+
+	@Override
+	public void mouseMoved(MouseEvent e) {}
+
+	@Override
+	public void mouseClicked(MouseEvent e) {}
+
+	@Override
+	public void mouseEntered(MouseEvent e) {}
+
+	@Override
+	public void mouseExited(MouseEvent e) {}
+}
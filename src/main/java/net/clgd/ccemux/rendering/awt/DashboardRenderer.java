@@ -0,0 +1,75 @@
+package net.clgd.ccemux.rendering.awt;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.annotation.Nonnull;
+
+import net.clgd.ccemux.api.emulation.EmulatedComputer;
+import net.clgd.ccemux.api.rendering.Renderer;
+import net.clgd.ccemux.plugins.builtin.AWTPlugin.AWTConfig;
+
+/**
+ * Shows a computer as a tile on the shared {@link Dashboard} window, rather than in a window of its own.
+ */
+public class DashboardRenderer implements Renderer {
+	private final AWTConfig config;
+	private final DashboardTile tile;
+	private final Dashboard dashboard;
+	private final CaptureThrottle throttle = new CaptureThrottle();
+
+	private final List<Renderer.Listener> listeners = new CopyOnWriteArrayList<>();
+
+	public DashboardRenderer(@Nonnull EmulatedComputer computer, @Nonnull AWTConfig config) {
+		this.config = config;
+		this.tile = new DashboardTile(computer, () -> listeners.forEach(Renderer.Listener::onClosed));
+		this.dashboard = Dashboard.get();
+		dashboard.add(tile);
+	}
+
+	@Override
+	public void addListener(@Nonnull Renderer.Listener listener) {
+		listeners.add(listener);
+	}
+
+	@Override
+	public void removeListener(@Nonnull Renderer.Listener listener) {
+		listeners.remove(listener);
+	}
+
+	@Override
+	public boolean isVisible() {
+		return dashboard.isWindowVisible();
+	}
+
+	@Override
+	public boolean isWatched() {
+		return dashboard.isShowing(tile);
+	}
+
+	@Override
+	public void setVisible(boolean visible) {
+		if (visible) dashboard.showWindow();
+	}
+
+	@Override
+	public void dispose() {
+		dashboard.remove(tile);
+	}
+
+	@Override
+	public long getFrameCount() {
+		return dashboard.frames;
+	}
+
+	@Override
+	public void onAdvance(double dt) {
+		RenderScheduler.get().setMaxFrameRate(config.maxFrameRate.get());
+		dashboard.setThumbnailScale(config.dashboardThumbnailScale.get());
+
+		// Whether the terminal has changed is only known once it has been captured, so capture whenever allowed.
+		if (throttle.advance(dashboard.getFrame(), dt, true, config.unfocusedFrameRate.get()) && tile.capture()) {
+			dashboard.request(tile);
+		}
+	}
+}
@@ -0,0 +1,189 @@
+package net.clgd.ccemux.rendering.awt;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.BitSet;
+
+import net.clgd.ccemux.api.emulation.EmulatedComputer;
+import net.clgd.ccemux.api.emulation.EmulatedTerminal;
+import net.clgd.ccemux.api.rendering.TerminalRasterizer;
+import net.clgd.ccemux.api.rendering.TerminalSnapshot;
+
+/**
+ * A single computer on the {@link Dashboard}.
+ * <p>
+ * Like {@link TerminalComponent}, the terminal is captured on the tick thread and drawn on the render thread. Each tile
+ * is drawn both as a thumbnail and at full size, and each of these keeps its own image, which is only redrawn where the
+ * terminal has changed since that image was last shown.
+ */
+final class DashboardTile {
+	final EmulatedComputer computer;
+	private final EmulatedTerminal terminal;
+	private final Runnable onClosed;
+
+	/**
+	 * The terminal as of the last capture, and the rows which have changed since it was last presented. These are
+	 * guarded by {@code this}.
+	 */
+	private long capturedVersion = -1;
+	private final TerminalSnapshot captured = new TerminalSnapshot();
+	private final BitSet capturedRows = new BitSet();
+	private boolean capturedFull = true;
+	private final BitSet scratchRows = new BitSet();
+	private final int[] scratchPalette = new int[16];
+
+	/**
+	 * The state below is only used by the render thread.
+	 */
+	private final TerminalSnapshot snapshot = new TerminalSnapshot();
+	final View thumbnail = new View();
+	final View full = new View();
+	private AWTTerminalFont fullFont;
+	private TerminalRasterizer fullRasterizer;
+
+	/**
+	 * @param computer The computer to show.
+	 * @param onClosed Called when the dashboard is closed, and so this computer should be removed.
+	 */
+	DashboardTile(EmulatedComputer computer, Runnable onClosed) {
+		this.computer = computer;
+		this.terminal = computer.terminal;
+		this.onClosed = onClosed;
+	}
+
+	void close() {
+		onClosed.run();
+	}
+
+	/**
+	 * Copy the terminal's changed rows. This should be called from the tick thread.
+	 *
+	 * @return Whether anything visible has changed since the last capture.
+	 */
+	boolean capture() {
+		synchronized (terminal) {
+			synchronized (this) {
+				int cursorX = captured.getCursorX(), cursorY = captured.getCursorY(), cursorColour = captured.getCursorColour();
+				boolean cursorVisible = captured.isCursorVisible();
+				for (int i = 0; i < 16; i++) scratchPalette[i] = captured.getPaletteColour(i);
+
+				capturedVersion = terminal.getChangedRows(capturedVersion, scratchRows);
+				capturedFull |= captured.capture(terminal, scratchRows);
+				capturedRows.or(scratchRows);
+
+				boolean changed = capturedFull || !scratchRows.isEmpty()
+					|| cursorX != captured.getCursorX() || cursorY != captured.getCursorY()
+					|| cursorColour != captured.getCursorColour() || cursorVisible != captured.isCursorVisible();
+				for (int i = 0; i < 16 && !changed; i++) changed = scratchPalette[i] != captured.getPaletteColour(i);
+				return changed;
+			}
+		}
+	}
+
+	/**
+	 * Copy the last capture into this tile's own snapshot, marking anything which changed as damaged in both views.
+	 */
+	void update() {
+		synchronized (this) {
+			boolean all = capturedFull;
+			if (all) {
+				snapshot.copyFrom(captured);
+			} else {
+				all = snapshot.copyFrom(captured, capturedRows);
+				thumbnail.damaged.or(capturedRows);
+				full.damaged.or(capturedRows);
+			}
+
+			capturedFull = false;
+			capturedRows.clear();
+
+			if (all) {
+				thumbnail.damagedAll = true;
+				full.damagedAll = true;
+			}
+		}
+	}
+
+	TerminalSnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Get the rasterizer used to draw this tile at full size.
+	 */
+	TerminalRasterizer getFullRasterizer(AWTTerminalFont font) {
+		if (fullRasterizer == null || fullFont != font) {
+			double scale = computer.getTermScale();
+			fullFont = font;
+			fullRasterizer = new TerminalRasterizer(font.getAtlas((int) (6 * scale), (int) (9 * scale)), (int) (2 * scale));
+		}
+		return fullRasterizer;
+	}
+
+	/**
+	 * An image of the terminal at a particular size.
+	 */
+	final class View {
+		private final BitSet damaged = new BitSet();
+		private boolean damagedAll = true;
+
+		private TerminalRasterizer rasterizer;
+		private BufferedImage image;
+		private int[] pixels;
+
+		private final int[] palette = new int[16];
+		private boolean cursorVisible;
+		private int cursorX, cursorY, cursorColour;
+
+		/**
+		 * Redraw anything which has changed since this view was last drawn.
+		 *
+		 * @param rasterizer The rasterizer to draw with.
+		 * @return The up-to-date image, or {@code null} if nothing has been captured yet.
+		 */
+		BufferedImage draw(TerminalRasterizer rasterizer) {
+			if (snapshot.getWidth() == 0 || snapshot.getHeight() == 0) return null;
+
+			boolean all = damagedAll;
+			if (rasterizer != this.rasterizer) {
+				this.rasterizer = rasterizer;
+				all = true;
+			}
+
+			int width = rasterizer.getWidth(snapshot), height = rasterizer.getHeight(snapshot);
+			if (image == null || image.getWidth() != width || image.getHeight() != height) {
+				image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+				pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+				all = true;
+			}
+
+			for (int i = 0; i < 16 && !all; i++) all = palette[i] != snapshot.getPaletteColour(i);
+
+			boolean visible = snapshot.isCursorVisible();
+			int x = snapshot.getCursorX(), y = snapshot.getCursorY(), colour = snapshot.getCursorColour();
+
+			if (all) {
+				rasterizer.rasterize(snapshot, pixels);
+			} else {
+				for (int row = damaged.nextSetBit(0); row >= 0; row = damaged.nextSetBit(row + 1)) {
+					rasterizer.rasterizeRow(snapshot, pixels, row);
+				}
+
+				if (visible != cursorVisible || x != cursorX || y != cursorY || colour != cursorColour) {
+					if (cursorVisible && !damaged.get(cursorY)) rasterizer.rasterizeCell(snapshot, pixels, cursorX, cursorY);
+					if (visible && !damaged.get(y)) rasterizer.rasterizeCell(snapshot, pixels, x, y);
+				}
+			}
+
+			for (int i = 0; i < 16; i++) palette[i] = snapshot.getPaletteColour(i);
+			cursorVisible = visible;
+			cursorX = x;
+			cursorY = y;
+			cursorColour = colour;
+			damaged.clear();
+			damagedAll = false;
+
+			return image;
+		}
+	}
+}
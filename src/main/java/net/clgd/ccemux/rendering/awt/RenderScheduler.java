@@ -0,0 +1,121 @@
+package net.clgd.ccemux.rendering.awt;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Draws every {@link AWTRenderer} window (and the {@link Dashboard}) on a single thread, separate from the emulator's
+ * tick thread.
+ * <p>
+ * The tick thread only {@link TerminalComponent#capture(AWTTerminalFont) captures} a snapshot of each terminal and
+ * requests a frame. Requests for the same window are coalesced until the render thread gets to them, and the render
+ * thread never draws more than {@link #setMaxFrameRate(int) a fixed number} of frames a second.
+ */
+final class RenderScheduler implements Runnable {
+	/**
+	 * Something which can be drawn by the scheduler.
+	 */
+	interface Target {
+		/**
+		 * Draw a frame. This is only called from the render thread.
+		 */
+		void present();
+	}
+
+	private static final Logger log = LoggerFactory.getLogger(RenderScheduler.class);
+
+	private static final RenderScheduler instance = new RenderScheduler();
+
+	static RenderScheduler get() {
+		return instance;
+	}
+
+	/**
+	 * Components which have a frame waiting to be drawn. This is guarded by {@code this}.
+	 */
+	private final Set<Target> pending = new LinkedHashSet<>();
+	private Thread thread;
+
+	private volatile long frameNanos;
+
+	private RenderScheduler() {
+		setMaxFrameRate(60);
+	}
+
+	/**
+	 * Set the maximum number of frames drawn per second.
+	 *
+	 * @param frameRate The maximum frame rate, or 0 to draw frames as soon as they are requested.
+	 */
+	void setMaxFrameRate(int frameRate) {
+		frameNanos = frameRate <= 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / frameRate;
+	}
+
+	/**
+	 * Request that a component is drawn.
+	 *
+	 * @param component The component to draw.
+	 */
+	synchronized void request(@Nonnull Target component) {
+		pending.add(component);
+
+		if (thread == null) {
+			thread = new Thread(this, "CCEmuX-AWT-Render");
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		notify();
+	}
+
+	/**
+	 * Stop drawing a component, such as when its window is closed.
+	 *
+	 * @param component The component to stop drawing.
+	 */
+	synchronized void cancel(@Nonnull Target component) {
+		pending.remove(component);
+	}
+
+	@Override
+	public void run() {
+		List<Target> frame = new ArrayList<>();
+		while (true) {
+			synchronized (this) {
+				while (pending.isEmpty()) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+				}
+
+				frame.addAll(pending);
+				pending.clear();
+			}
+
+			long start = System.nanoTime();
+			for (Target component : frame) {
+				try {
+					component.present();
+				} catch (RuntimeException e) {
+					log.error("Error drawing terminal", e);
+				}
+			}
+			frame.clear();
+
+			long remaining = start + frameNanos - System.nanoTime();
+			if (remaining > 0) LockSupport.parkNanos(remaining);
+		}
+	}
+}
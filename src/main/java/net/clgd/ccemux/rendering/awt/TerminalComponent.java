@@ -3,53 +3,230 @@ package net.clgd.ccemux.rendering.awt;
 import java.awt.Canvas;
 import java.awt.Dimension;
 import java.awt.Graphics;
+import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.BitSet;
 
-import dan200.computercraft.core.terminal.Terminal;
+import net.clgd.ccemux.api.emulation.EmulatedComputer;
+import net.clgd.ccemux.api.emulation.EmulatedTerminal;
+import net.clgd.ccemux.api.rendering.TerminalRasterizer;
+import net.clgd.ccemux.api.rendering.TerminalSnapshot;
+import net.clgd.ccemux.jfr.RenderEvent;
 
-class TerminalComponent extends Canvas {
+/**
+ * Displays a computer's terminal.
+ * <p>
+ * The terminal is drawn in two halves: {@link #capture(AWTTerminalFont)} copies any changed rows into a snapshot
+ * while holding the terminal's lock, and {@link #present()} then rasterizes and displays that snapshot on the
+ * {@link RenderScheduler}'s thread, without touching the terminal at all.
+ */
+class TerminalComponent extends Canvas implements RenderScheduler.Target {
 	private static final long serialVersionUID = -5043543826280613143L;
 
-	private final Terminal terminal;
-	private final TerminalRenderer renderer;
+	private final int computerId;
+	private final EmulatedTerminal terminal;
+	private final int pixelWidth;
+	private final int pixelHeight;
+	private final int margin;
 
 	boolean blinkLocked = false;
 
-	public TerminalComponent(Terminal terminal, double termScale) {
-		this.terminal = terminal;
-		this.renderer = new TerminalRenderer(terminal, termScale);
+	/**
+	 * Whether to only redraw the parts of the terminal which have changed. Otherwise every cell is redrawn each frame.
+	 */
+	volatile boolean incremental = true;
+
+	volatile long frames;
+
+	/**
+	 * Whether the next capture should copy and redraw the whole terminal.
+	 */
+	private volatile boolean damageAll = true;
+
+	/**
+	 * The terminal as of the last capture, the rows which have changed since it was last presented, and the font to
+	 * present it with. These are guarded by {@code this}.
+	 */
+	private long capturedVersion = -1;
+	private final TerminalSnapshot captured = new TerminalSnapshot();
+	private final BitSet capturedRows = new BitSet();
+	private boolean capturedFull = true;
+	private AWTTerminalFont capturedFont;
+	private final BitSet scratchRows = new BitSet();
+
+	/**
+	 * The state below is only used by the render thread.
+	 */
+	private final TerminalSnapshot snapshot = new TerminalSnapshot();
+	private final BitSet damagedRows = new BitSet();
+
+	private AWTTerminalFont rasterizerFont;
+	private TerminalRasterizer rasterizer;
+
+	/**
+	 * The terminal as it was last drawn. Damaged rows are rasterized straight into {@link #pixels}, and the image is
+	 * then copied to the screen.
+	 */
+	private BufferedImage buffer;
+	private int[] pixels;
+
+	private boolean lastCursorVisible;
+	private int lastCursorX, lastCursorY, lastCursorColour;
+
+	public TerminalComponent(EmulatedComputer computer, double termScale) {
+		this.computerId = computer.getID();
+		this.terminal = computer.terminal;
+		this.pixelWidth = (int) (6 * termScale);
+		this.pixelHeight = (int) (9 * termScale);
+		this.margin = (int) (2 * termScale);
 		resizeTerminal();
 	}
 
 	public int getMargin() {
-		return this.renderer.getMargin();
+		return margin;
 	}
 
 	void resizeTerminal() {
-		Dimension termDimensions = renderer.getSize();
+		Dimension termDimensions = new Dimension(
+			terminal.getWidth() * pixelWidth + margin * 2,
+			terminal.getHeight() * pixelHeight + margin * 2
+		);
 
 		setSize(termDimensions);
 		setPreferredSize(termDimensions);
 	}
 
-	private void renderTerminal(AWTTerminalFont font) {
+	/**
+	 * Redraw the whole terminal on the next frame, such as when the palette changes.
+	 */
+	void damageAll() {
+		damageAll = true;
+	}
+
+	/**
+	 * Stop drawing the terminal.
+	 */
+	void dispose() {
+		RenderScheduler.get().cancel(this);
+	}
+
+	/**
+	 * Copy the terminal's changed rows, and request that they are drawn. This is cheap, and so can be called from the
+	 * tick thread.
+	 *
+	 * @param font The font to draw the terminal with.
+	 */
+	public void capture(AWTTerminalFont font) {
 		synchronized (terminal) {
-			Graphics g = getBufferStrategy().getDrawGraphics();
-			renderer.render(font, g);
-			g.dispose();
+			synchronized (this) {
+				capturedVersion = terminal.getChangedRows(capturedVersion, scratchRows);
+
+				boolean full = damageAll || !incremental;
+				damageAll = false;
+				if (full) {
+					captured.capture(terminal);
+					capturedFull = true;
+				} else {
+					capturedFull |= captured.capture(terminal, scratchRows);
+					capturedRows.or(scratchRows);
+				}
+
+				capturedFont = font;
+			}
 		}
+
+		RenderScheduler.get().request(this);
 	}
 
-	public void render(AWTTerminalFont font) {
+	/**
+	 * Rasterize and display the last capture. This should only be called from the render thread.
+	 */
+	@Override
+	public void present() {
+		if (!isDisplayable()) return;
+
+		RenderEvent event = new RenderEvent();
+		event.begin();
+
+		AWTTerminalFont font;
+		boolean full;
+		synchronized (this) {
+			font = capturedFont;
+			if (font == null) return;
+
+			full = capturedFull;
+			damagedRows.clear();
+			if (full) {
+				snapshot.copyFrom(captured);
+			} else {
+				full = snapshot.copyFrom(captured, capturedRows);
+				damagedRows.or(capturedRows);
+			}
+
+			capturedFull = false;
+			capturedRows.clear();
+		}
+
+		if (font != rasterizerFont) {
+			rasterizerFont = font;
+			rasterizer = new TerminalRasterizer(font.getAtlas(pixelWidth, pixelHeight), margin);
+			full = true;
+		}
+
+		int width = rasterizer.getWidth(snapshot), height = rasterizer.getHeight(snapshot);
+		if (buffer == null || buffer.getWidth() != width || buffer.getHeight() != height) {
+			buffer = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			pixels = ((DataBufferInt) buffer.getRaster().getDataBuffer()).getData();
+			full = true;
+		}
+
+		boolean cursorVisible = snapshot.isCursorVisible();
+		int cursorX = snapshot.getCursorX(), cursorY = snapshot.getCursorY(), cursorColour = snapshot.getCursorColour();
+
+		if (full) {
+			rasterizer.rasterize(snapshot, pixels);
+		} else {
+			for (int y = damagedRows.nextSetBit(0); y >= 0; y = damagedRows.nextSetBit(y + 1)) {
+				rasterizer.rasterizeRow(snapshot, pixels, y);
+			}
+
+			// The cursor moving or blinking only touches the cell it left and the cell it is now in.
+			if (cursorVisible != lastCursorVisible || cursorX != lastCursorX || cursorY != lastCursorY || cursorColour != lastCursorColour) {
+				if (lastCursorVisible && !damagedRows.get(lastCursorY)) rasterizer.rasterizeCell(snapshot, pixels, lastCursorX, lastCursorY);
+				if (cursorVisible && !damagedRows.get(cursorY)) rasterizer.rasterizeCell(snapshot, pixels, cursorX, cursorY);
+			}
+		}
+
+		lastCursorVisible = cursorVisible;
+		lastCursorX = cursorX;
+		lastCursorY = cursorY;
+		lastCursorColour = cursorColour;
+
 		if (getBufferStrategy() == null) {
 			createBufferStrategy(2);
 		}
 
+		BufferStrategy strategy = getBufferStrategy();
 		do {
 			do {
-				renderTerminal(font);
-			} while (getBufferStrategy().contentsRestored());
+				Graphics g = strategy.getDrawGraphics();
+				g.drawImage(buffer, 0, 0, null);
+				g.dispose();
+			} while (strategy.contentsRestored());
+
+			strategy.show();
+		} while (strategy.contentsLost());
 
-			getBufferStrategy().show();
-		} while (getBufferStrategy().contentsLost());
+		frames++;
+
+		event.end();
+		if (event.shouldCommit()) {
+			event.computerId = computerId;
+			event.renderer = "AWT";
+			event.width = snapshot.getWidth();
+			event.height = snapshot.getHeight();
+			event.commit();
+		}
 	}
 }
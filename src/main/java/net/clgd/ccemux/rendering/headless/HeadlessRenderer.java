@@ -0,0 +1,88 @@
+package net.clgd.ccemux.rendering.headless;
+
+import java.io.File;
+
+import javax.annotation.Nonnull;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import net.clgd.ccemux.api.emulation.EmulatedComputer;
+import net.clgd.ccemux.api.rendering.Renderer;
+import net.clgd.ccemux.plugins.builtin.HeadlessPlugin.HeadlessConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A renderer which doesn't display anything, for running computers on servers without a display.
+ * <p>
+ * The computer's terminal is still kept up to date, so it can be read through the API, and input can be sent with
+ * {@link EmulatedComputer#pressKey(int, boolean)} and friends. If configured, a screenshot of the terminal is saved
+ * every so often, but only when the terminal has changed since the last one.
+ */
+public class HeadlessRenderer implements Renderer {
+	private static final Logger log = LoggerFactory.getLogger(HeadlessRenderer.class);
+
+	private final EmulatedComputer computer;
+	private final HeadlessConfig config;
+
+	private double sinceSnapshot;
+	private long snapshotVersion = -1;
+	private volatile boolean snapshotPending;
+
+	public HeadlessRenderer(@Nonnull EmulatedComputer computer, @Nonnull HeadlessConfig config) {
+		this.computer = computer;
+		this.config = config;
+	}
+
+	@Override
+	public boolean isVisible() {
+		return false;
+	}
+
+	@Override
+	public void setVisible(boolean visible) {
+	}
+
+	@Override
+	public void dispose() {
+	}
+
+	@Override
+	public void addListener(@Nonnull Renderer.Listener l) {
+		// Headless computers can only be closed through the API, so there is nothing to listen to.
+	}
+
+	@Override
+	public void removeListener(@Nonnull Renderer.Listener l) {
+	}
+
+	@Override
+	public void onAdvance(double dt) {
+		double interval = config.snapshotInterval.get();
+		if (interval <= 0) return;
+
+		sinceSnapshot += dt;
+		if (sinceSnapshot < interval || snapshotPending) return;
+		sinceSnapshot = 0;
+
+		long version = computer.terminal.getVersion();
+		if (version == snapshotVersion) return;
+		snapshotVersion = version;
+
+		// Don't queue up another snapshot if the last one is still being written.
+		snapshotPending = true;
+		Futures.addCallback(computer.screenshot(), new FutureCallback<File>() {
+			@Override
+			public void onSuccess(File result) {
+				snapshotPending = false;
+			}
+
+			@Override
+			public void onFailure(@Nonnull Throwable t) {
+				snapshotPending = false;
+				log.error("Cannot save snapshot of computer ID {}", computer.getID(), t);
+			}
+		}, MoreExecutors.directExecutor());
+	}
+}
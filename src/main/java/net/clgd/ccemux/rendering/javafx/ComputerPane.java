@@ -5,13 +5,15 @@ import static net.clgd.ccemux.api.rendering.TerminalFont.*;
 
 import java.awt.Point;
 import java.io.IOException;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import dan200.computercraft.core.terminal.TextBuffer;
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.beans.Observable;
 import javafx.beans.binding.DoubleExpression;
@@ -28,7 +30,10 @@ import javafx.stage.StageStyle;
 import net.clgd.ccemux.api.OperatingSystem;
 import net.clgd.ccemux.api.Utils;
 import net.clgd.ccemux.api.emulation.EmulatedComputer;
+import net.clgd.ccemux.api.emulation.EmulatedTerminal;
+import net.clgd.ccemux.api.rendering.GlyphAtlas;
 import net.clgd.ccemux.api.rendering.PaletteAdapter;
+import net.clgd.ccemux.jfr.RenderEvent;
 import net.clgd.ccemux.plugins.builtin.JFXPlugin;
 
 public class ComputerPane extends Pane implements EmulatedComputer.Listener {
@@ -52,8 +57,33 @@ public class ComputerPane extends Pane implements EmulatedComputer.Listener {
 	private final DoubleExpression totalWidth;
 	private final DoubleExpression totalHeight;
 
+	/**
+	 * Whether the cursor was shown when last drawn, only used by the FX thread.
+	 */
 	private boolean lastBlink = false;
-	private double blinkLockedTime = 0;
+
+	/**
+	 * Whether the cursor was shown as of the last tick, only used by the tick thread.
+	 */
+	private boolean tickBlink = false;
+
+	/**
+	 * How long the cursor is kept shown after typing. This is set on the FX thread and counted down on the tick thread.
+	 */
+	private volatile double blinkLockedTime = 0;
+
+	/**
+	 * The state of the window this pane is shown in, set by {@link JFXRenderer}.
+	 */
+	private volatile boolean windowIconified = false;
+	private volatile boolean windowFocused = true;
+
+	/**
+	 * Whether the terminal has changed since it was last drawn, and the time since it was last drawn. Redraws are held
+	 * back while the window is minimised or without focus.
+	 */
+	private boolean redrawPending = false;
+	private double sinceRedraw = 0;
 
 	/**
 	 * Map of currently-pressed key codes to the time (in millis) that they were
@@ -71,6 +101,47 @@ public class ComputerPane extends Pane implements EmulatedComputer.Listener {
 	 */
 	private int lastDragButton;
 
+	/**
+	 * The number of times the terminal has been drawn.
+	 */
+	private volatile long frames;
+
+	/**
+	 * A row of packed cells, reused between redraws.
+	 */
+	private int[] row = new int[0];
+
+	/**
+	 * Drives redraws, running on the next pulse after a redraw is requested and then stopping again.
+	 */
+	private final AnimationTimer pulse = new AnimationTimer() {
+		@Override
+		public void handle(long now) {
+			stop();
+			redrawRequested.set(false);
+			redraw();
+		}
+	};
+
+	/**
+	 * Whether a redraw has been requested, but not yet started.
+	 */
+	private final AtomicBoolean redrawRequested = new AtomicBoolean();
+
+	/**
+	 * Whether the whole terminal should be drawn on the next redraw, as the canvas has changed.
+	 */
+	private volatile boolean damagedAll = true;
+
+	/**
+	 * The state below is only used on the JavaFX thread, and describes what the canvas currently shows.
+	 */
+	private PaletteAtlas atlas;
+	private final BitSet damagedRows = new BitSet();
+	private long drawnVersion = -1;
+	private int drawnWidth = -1, drawnHeight = -1;
+	private int drawnCursorX, drawnCursorY, drawnCursorColour;
+
 	/**
 	 * @return Whether the cursor should be shown
 	 */
@@ -97,8 +168,8 @@ public class ComputerPane extends Pane implements EmulatedComputer.Listener {
 		canvas.widthProperty().bind(this.widthProperty());
 		canvas.heightProperty().bind(this.heightProperty());
 
-		canvas.widthProperty().addListener(o -> this.redraw());
-		canvas.heightProperty().addListener(o -> this.redraw());
+		canvas.widthProperty().addListener(o -> requestFullRedraw());
+		canvas.heightProperty().addListener(o -> requestFullRedraw());
 
 		// setup event listeners
 		setOnKeyPressed(this::keyPressed);
@@ -131,12 +202,29 @@ public class ComputerPane extends Pane implements EmulatedComputer.Listener {
 		return false;
 	}
 
+	/**
+	 * Request that the terminal is redrawn on the next pulse. Any further requests before then are coalesced into the
+	 * same redraw, so a burst of changes only draws the terminal once. This may be called from any thread.
+	 */
+	private void requestRedraw() {
+		if (redrawRequested.getAndSet(true)) return;
+		Platform.runLater(pulse::start);
+	}
+
+	/**
+	 * Request that the whole terminal is redrawn on the next pulse, rather than just the rows which have changed.
+	 */
+	private void requestFullRedraw() {
+		damagedAll = true;
+		requestRedraw();
+	}
+
+	/**
+	 * Draw any rows which have changed since the terminal was last drawn. This must be called on the JavaFX thread.
+	 */
 	private void redraw() {
-		if (!Platform.isFxApplicationThread()) {
-			// only draw on the JavaFX thread
-			Platform.runLater(this::redraw);
-			return;
-		}
+		RenderEvent event = new RenderEvent();
+		event.begin();
 
 		synchronized (computer.terminal) {
 			GraphicsContext g = canvas.getGraphicsContext2D();
@@ -145,61 +233,129 @@ public class ComputerPane extends Pane implements EmulatedComputer.Listener {
 			double fontScale = termScale.get();
 			if (JFXPlugin.doubleFontScale.get()) fontScale *= 2;
 
-			double m = margin.get();
-			double cw = charWidth.get(), ch = charHeight.get();
-			int tw = computer.terminal.getWidth(), th = computer.terminal.getHeight();
+			PaletteAtlas previousAtlas = atlas;
+			PaletteAtlas atlas = getAtlas(fontScale);
+			boolean all = damagedAll | atlas != previousAtlas;
+			all |= atlas.update(paletteAdapter);
+			damagedAll = false;
 
-			// current position offsets
-			double ox = 0, oy = 0;
+			int tw = computer.terminal.getWidth(), th = computer.terminal.getHeight();
+			if (tw != drawnWidth || th != drawnHeight) {
+				drawnWidth = tw;
+				drawnHeight = th;
+				all = true;
+			}
 
-			// height/width of current position
-			double height, width;
+			drawnVersion = computer.terminal.getChangedRows(drawnVersion, damagedRows);
 
-			TextBuffer bg, fg, text;
+			// Redraw the rows the cursor has moved from and to, to clear the old cursor.
+			boolean cursor = cursorBlink();
+			int cursorX = computer.terminal.getCursorX(), cursorY = computer.terminal.getCursorY();
+			int cursorColour = computer.terminal.getTextColour();
+			if (cursorColour < 0 || cursorColour > 15) cursorColour = 15 - PaletteAdapter.DEFAULT_FOREGROUND;
+			if (cursor != lastBlink || cursorX != drawnCursorX || cursorY != drawnCursorY || cursorColour != drawnCursorColour) {
+				if (lastBlink && drawnCursorY >= 0 && drawnCursorY < th) damagedRows.set(drawnCursorY);
+				if (cursor && cursorY >= 0 && cursorY < th) damagedRows.set(cursorY);
+			}
 
-			Image charImg;
+			if (row.length != tw) row = new int[tw];
 
-			for (int y = 0; y < th; y++) {
-				height = ch + ((y == 0 || y == th - 1) ? m : 0);
+			if (all) {
+				for (int y = 0; y < th; y++) drawRow(g, atlas, y, tw, th);
+			} else {
+				for (int y = damagedRows.nextSetBit(0); y >= 0 && y < th; y = damagedRows.nextSetBit(y + 1)) {
+					drawRow(g, atlas, y, tw, th);
+				}
+			}
+			damagedRows.clear();
 
-				bg = computer.terminal.getBackgroundColourLine(y);
-				fg = computer.terminal.getTextColourLine(y);
-				text = computer.terminal.getLine(y);
+			// draw cursor
+			if (cursor) {
+				double m = margin.get(), cw = charWidth.get(), ch = charHeight.get();
+				GlyphAtlas glyphs = atlas.getAtlas();
+				g.drawImage(atlas.getImage(), atlas.getGlyphX('_', cursorColour), atlas.getGlyphY('_', cursorColour),
+					glyphs.getGlyphWidth(), glyphs.getGlyphHeight(), m + (cw * cursorX), m + (ch * cursorY), cw, ch);
+			}
 
-				for (int x = 0; x < tw; x++) {
-					width = cw + ((x == 0 || x == tw - 1) ? m : 0);
+			lastBlink = cursor;
+			drawnCursorX = cursorX;
+			drawnCursorY = cursorY;
+			drawnCursorColour = cursorColour;
 
-					// draw background
-					g.setFill(paletteAdapter.getColor(bg.charAt(x), PaletteAdapter.DEFAULT_BACKGROUND));
-					g.fillRect(ox, oy, width, height);
+			event.width = tw;
+			event.height = th;
+		}
 
-					// draw character
-					charImg = font.getCharImage(text.charAt(x), paletteAdapter.getColor(fg.charAt(x), PaletteAdapter.DEFAULT_FOREGROUND), fontScale);
-					g.drawImage(charImg, ox + (x == 0 ? m : 0), oy + (y == 0 ? m : 0), cw, ch);
+		frames++;
 
-					ox += width;
-				}
+		event.end();
+		if (event.shouldCommit()) {
+			event.computerId = computer.getID();
+			event.renderer = "JavaFX";
+			event.commit();
+		}
+	}
 
-				ox = 0;
-				oy += height;
+	/**
+	 * Draw a single row of the terminal, including the margins either side of it.
+	 */
+	private void drawRow(GraphicsContext g, PaletteAtlas atlas, int y, int tw, int th) {
+		double m = margin.get();
+		double cw = charWidth.get(), ch = charHeight.get();
+
+		Image sheet = atlas.getImage();
+		GlyphAtlas glyphs = atlas.getAtlas();
+		int gw = glyphs.getGlyphWidth(), gh = glyphs.getGlyphHeight();
+
+		double oy = y == 0 ? 0 : m + ch * y;
+		double height = ch + ((y == 0 || y == th - 1) ? m : 0);
+		double ox = 0, width;
+
+		computer.terminal.copyRow(y, row, 0);
+
+		for (int x = 0; x < tw; x++) {
+			width = cw + ((x == 0 || x == tw - 1) ? m : 0);
+			int cell = row[x];
+
+			// draw background
+			g.setFill(atlas.getFill(EmulatedTerminal.getCellBackground(cell)));
+			g.fillRect(ox, oy, width, height);
+
+			// draw character
+			char c = EmulatedTerminal.getCellChar(cell);
+			if (!glyphs.isBlank(c)) {
+				int fg = EmulatedTerminal.getCellForeground(cell);
+				g.drawImage(sheet, atlas.getGlyphX(c, fg), atlas.getGlyphY(c, fg), gw, gh,
+					ox + (x == 0 ? m : 0), oy + (y == 0 ? m : 0), cw, ch);
 			}
 
-			// draw cursor
-			if (cursorBlink()) {
-				g.drawImage(
-					font.getCharImage('_', paletteAdapter.getColor(computer.terminal.getTextColour(), PaletteAdapter.DEFAULT_FOREGROUND), fontScale),
-					m + (cw * computer.terminal.getCursorX()), m + (ch * computer.terminal.getCursorY()), cw, ch);
-			}
+			ox += width;
+		}
+	}
 
-			lastBlink = cursorBlink();
+	/**
+	 * Get the glyph atlas for the current scale, building a new one if the scale has changed.
+	 */
+	private PaletteAtlas getAtlas(double fontScale) {
+		int glyphWidth = (int) (BASE_CHAR_WIDTH * fontScale), glyphHeight = (int) (BASE_CHAR_HEIGHT * fontScale);
+		PaletteAtlas atlas = this.atlas;
+		if (atlas == null || atlas.getAtlas().getGlyphWidth() != glyphWidth || atlas.getAtlas().getGlyphHeight() != glyphHeight) {
+			atlas = this.atlas = new PaletteAtlas(font.getAtlas(glyphWidth, glyphHeight));
 		}
+		return atlas;
+	}
+
+	long getFrameCount() {
+		return frames;
 	}
 
 	@Override()
 	public void onAdvance(double dt) {
 		blinkLockedTime = Math.max(0, blinkLockedTime - dt);
 
-		boolean repaint = lastBlink != cursorBlink();
+		boolean blink = cursorBlink();
+		boolean repaint = blink != tickBlink;
+		tickBlink = blink;
 		repaint |= computer.terminal.getAndClearChanged();
 
 		if (computer.terminal.getPalette().isChanged()) {
@@ -207,9 +363,25 @@ public class ComputerPane extends Pane implements EmulatedComputer.Listener {
 			computer.terminal.getPalette().setChanged(false);
 		}
 
-		if (repaint) {
-			this.redraw();
-		}
+		redrawPending |= repaint;
+		sinceRedraw += dt;
+		if (!redrawPending || windowIconified) return;
+
+		int unfocusedFrameRate = JFXPlugin.unfocusedFrameRate.get();
+		if (!windowFocused && unfocusedFrameRate > 0 && sinceRedraw < 1.0 / unfocusedFrameRate) return;
+
+		redrawPending = false;
+		sinceRedraw = 0;
+		requestRedraw();
+	}
+
+	void setWindowState(boolean iconified, boolean focused) {
+		windowIconified = iconified;
+		windowFocused = focused;
+	}
+
+	boolean isWindowIconified() {
+		return windowIconified;
 	}
 
 	/**
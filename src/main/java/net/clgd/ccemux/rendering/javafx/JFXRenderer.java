@@ -7,6 +7,7 @@ import javax.annotation.Nonnull;
 
 import com.google.common.base.Strings;
 import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
 import javafx.beans.property.ReadOnlyDoubleProperty;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
@@ -43,6 +44,11 @@ public final class JFXRenderer implements Renderer {
 		stage.getIcons().add(new Image("/img/icon.png"));
 
 		stage.setOnCloseRequest(e -> listeners.forEach(Listener::onClosed));
+
+		InvalidationListener windowState = o -> pane.setWindowState(stage.isIconified(), stage.isFocused());
+		stage.iconifiedProperty().addListener(windowState);
+		stage.focusedProperty().addListener(windowState);
+		windowState.invalidated(null);
 	}
 
 	@Override
@@ -50,6 +56,11 @@ public final class JFXRenderer implements Renderer {
 		return stage.isShowing();
 	}
 
+	@Override
+	public boolean isWatched() {
+		return stage.isShowing() && !pane.isWindowIconified();
+	}
+
 	@Override
 	public void setVisible(boolean visible) {
 		Platform.runLater(() -> {
@@ -70,6 +81,11 @@ public final class JFXRenderer implements Renderer {
 		}
 	}
 
+	@Override
+	public long getFrameCount() {
+		return pane.getFrameCount();
+	}
+
 	@Override
 	public void onAdvance(double dt) {
 		if (!stage.getTitle().equals(generateTitle())) {
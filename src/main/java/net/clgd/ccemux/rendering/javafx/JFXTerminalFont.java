@@ -1,22 +1,18 @@
 package net.clgd.ccemux.rendering.javafx;
 
-import java.awt.*;
 import java.net.URL;
-import java.util.concurrent.ExecutionException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import javafx.scene.image.Image;
-import javafx.scene.image.PixelReader;
-import javafx.scene.image.PixelWriter;
-import javafx.scene.image.WritableImage;
-import javafx.scene.paint.Color;
+import javafx.scene.image.PixelFormat;
+import net.clgd.ccemux.api.rendering.GlyphAtlas;
 import net.clgd.ccemux.api.rendering.TerminalFont;
 
-import static java.util.concurrent.TimeUnit.SECONDS;
-
 public class JFXTerminalFont extends TerminalFont {
-	private static JFXTerminalFont bestFont;
+	private static volatile JFXTerminalFont bestFont;
 
 	public static JFXTerminalFont getBestFont() {
 		JFXTerminalFont font = bestFont;
@@ -25,11 +21,7 @@ public class JFXTerminalFont extends TerminalFont {
 
 	private final Image base;
 
-	private record CharImageRequest(char character, Color color, double termScale) {
-	}
-
-	private final Cache<CharImageRequest, Image> charCache = CacheBuilder.newBuilder().expireAfterAccess(30, SECONDS)
-		.maximumSize(1000).initialCapacity(200).build();
+	private final Map<Long, GlyphAtlas> atlases = new LinkedHashMap<>();
 
 	public JFXTerminalFont(Image base) {
 		super(base.widthProperty().intValue(), base.heightProperty().intValue());
@@ -44,40 +36,20 @@ public class JFXTerminalFont extends TerminalFont {
 		this(url.toString());
 	}
 
-	public Image generateCharImage(char c, Color color) {
-		Rectangle coords = getCharCoords(c);
-		WritableImage out = new WritableImage(coords.width, coords.height);
-
-		PixelReader reader = base.getPixelReader();
-		PixelWriter writer = out.getPixelWriter();
-
-		// TODO: probably faster to use a PixelFormat
-		for (int x = 0; x < coords.width; x++) {
-			for (int y = 0; y < coords.height; y++) {
-				Color oc = reader.getColor(coords.x + x, coords.y + y);
-
-				writer.setColor(x, y, Color.color(oc.getRed() * color.getRed(), oc.getGreen() * color.getGreen(),
-					oc.getBlue() * color.getBlue(), oc.getOpacity()));
-			}
-		}
-
-		return out;
-	}
-
-	public Image generateScaledCharImage(char c, Color color, double termScale) {
-		Image base = generateCharImage(c, color);
-		return ImageRescaler.rescale(base, termScale / this.getHorizontalScale(), termScale / this.getVerticalScale());
-	}
-
-	public Image getCharImage(char c, Color color, double termScale) {
-		try {
-			return charCache.get(new CharImageRequest(c, color, termScale),
-				() -> generateScaledCharImage(c, color, termScale));
-		} catch (ExecutionException e) {
-			Throwable inner = e.getCause();
-			if (inner instanceof RuntimeException) throw (RuntimeException) inner;
-			if (inner instanceof Error) throw (Error) inner;
-			throw new RuntimeException(e);
-		}
+	/**
+	 * Get an atlas of this font's glyphs at a given size. Atlases are built once and then cached.
+	 *
+	 * @param glyphWidth  The width to draw each glyph at.
+	 * @param glyphHeight The height to draw each glyph at.
+	 * @return The atlas for this size.
+	 */
+	@Nonnull
+	public synchronized GlyphAtlas getAtlas(int glyphWidth, int glyphHeight) {
+		return atlases.computeIfAbsent((long) glyphWidth << 32 | glyphHeight, k -> {
+			int width = (int) base.getWidth(), height = (int) base.getHeight();
+			int[] pixels = new int[width * height];
+			base.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+			return new GlyphAtlas(this, pixels, width, glyphWidth, glyphHeight);
+		});
 	}
 }
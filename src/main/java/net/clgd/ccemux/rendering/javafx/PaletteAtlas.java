@@ -0,0 +1,99 @@
+package net.clgd.ccemux.rendering.javafx;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import net.clgd.ccemux.api.rendering.GlyphAtlas;
+import net.clgd.ccemux.api.rendering.PaletteAdapter;
+
+/**
+ * A {@link GlyphAtlas} tinted with every colour of a terminal's palette, all in a single image. The terminal is then
+ * drawn by copying regions of this image, rather than creating an image for each glyph and colour.
+ * <p>
+ * The sheets for each palette colour are laid out in a square grid, which keeps the image well within the texture
+ * size limits of most GPUs. When the palette changes, only the sheets for the colours which changed are retinted.
+ */
+final class PaletteAtlas {
+	/**
+	 * The number of sheets in each row of the image.
+	 */
+	private static final int COLUMNS = 4;
+
+	private final GlyphAtlas atlas;
+	private final WritableImage image;
+
+	private final int[] colours = new int[16];
+	private final Color[] fills = new Color[16];
+
+	private final int[] tinted;
+	private final IntBuffer tintedBuffer;
+
+	PaletteAtlas(GlyphAtlas atlas) {
+		this.atlas = atlas;
+		this.image = new WritableImage(atlas.getSheetWidth() * COLUMNS, atlas.getSheetHeight() * (16 / COLUMNS));
+		this.tinted = new int[atlas.getSheetWidth() * atlas.getSheetHeight()];
+		this.tintedBuffer = IntBuffer.wrap(tinted);
+		Arrays.fill(colours, -1);
+	}
+
+	GlyphAtlas getAtlas() {
+		return atlas;
+	}
+
+	Image getImage() {
+		return image;
+	}
+
+	/**
+	 * Retint the sheets of any colours which have changed. This must be called on the JavaFX thread.
+	 *
+	 * @param palette The terminal's palette.
+	 * @return Whether any colour changed.
+	 */
+	boolean update(PaletteAdapter<?> palette) {
+		boolean changed = false;
+		int width = atlas.getSheetWidth(), height = atlas.getSheetHeight();
+		for (int i = 0; i < 16; i++) {
+			int rgb = palette.getRGB(i, PaletteAdapter.DEFAULT_BACKGROUND);
+			if (rgb == colours[i]) continue;
+
+			changed = true;
+			colours[i] = rgb;
+			fills[i] = Color.rgb(rgb >> 16 & 0xFF, rgb >> 8 & 0xFF, rgb & 0xFF);
+
+			atlas.tint(rgb, tinted);
+			tintedBuffer.clear();
+			image.getPixelWriter().setPixels(i % COLUMNS * width, i / COLUMNS * height, width, height, PixelFormat.getIntArgbInstance(), tintedBuffer, width);
+		}
+
+		return changed;
+	}
+
+	/**
+	 * Get a palette colour, for filling backgrounds.
+	 *
+	 * @param colour The colour's index in the palette, between 0 and 15.
+	 * @return The colour, as of the last {@link #update(PaletteAdapter)}.
+	 */
+	Color getFill(int colour) {
+		return fills[colour];
+	}
+
+	/**
+	 * Get the x coordinate of a glyph within the image, when tinted with a palette colour.
+	 */
+	int getGlyphX(char c, int colour) {
+		return colour % COLUMNS * atlas.getSheetWidth() + atlas.getGlyphX(c);
+	}
+
+	/**
+	 * Get the y coordinate of a glyph within the image, when tinted with a palette colour.
+	 */
+	int getGlyphY(char c, int colour) {
+		return colour / COLUMNS * atlas.getSheetHeight() + atlas.getGlyphY(c);
+	}
+}
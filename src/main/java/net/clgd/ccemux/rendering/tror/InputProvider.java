@@ -1,45 +1,44 @@
 package net.clgd.ccemux.rendering.tror;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.LinkedBlockingDeque;
 
 import net.clgd.ccemux.api.emulation.EmulatedComputer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class InputProvider {
+	private static final Logger log = LoggerFactory.getLogger(InputProvider.class);
+
+	/**
+	 * The most input packets which may be waiting for a single computer. Any more are dropped.
+	 */
+	private static final int MAX_QUEUED = 1024;
+
 	private static InputProvider stdinProvider;
 	private static final Object lock = new Object();
 
 	private final Map<Integer, BlockingDeque<InputPacket>> events = new HashMap<>();
+	private final Map<Integer, EmulatedComputer> computers = new HashMap<>();
 	private final Thread thread;
 
+	/**
+	 * Create an input provider which is fed lines by {@link #accept(String)}, rather than reading them from a stream.
+	 */
+	InputProvider() {
+		thread = null;
+	}
+
 	public InputProvider(InputStream stream) {
 		thread = new Thread(() -> {
 			try (Scanner scanner = new Scanner(stream, "UTF-8")) {
-				while (scanner.hasNextLine()) {
-					String line = scanner.nextLine();
-					int metaStart = line.indexOf(':');
-					int metaEnd = line.indexOf(';');
-
-					if (metaStart < 0 || metaEnd < 0 || metaEnd < metaStart) continue;
-
-					String code = line.substring(0, metaStart);
-					String meta = line.substring(metaStart + 1, metaEnd);
-					String payload = line.substring(metaEnd + 1);
-
-					int computer;
-					try {
-						computer = Integer.parseInt(meta);
-					} catch (NumberFormatException e) {
-						e.printStackTrace();
-						continue;
-					}
-
-					getQueue(computer).add(new InputPacket(code, payload));
-				}
+				while (scanner.hasNextLine()) accept(scanner.nextLine());
 			}
 		});
 		thread.setName("TRoR input provider");
@@ -47,15 +46,83 @@ public class InputProvider {
 		thread.start();
 	}
 
+	/**
+	 * Parse a single line of input, and queue it for the computer it names. Lines for computers which are not reading
+	 * from this provider, or whose queue is full, are dropped.
+	 *
+	 * @param line The line, without its trailing newline.
+	 */
+	void accept(String line) {
+		int metaStart = line.indexOf(':');
+		int metaEnd = line.indexOf(';');
+
+		if (metaStart < 0 || metaEnd < 0 || metaEnd < metaStart) return;
+
+		String code = line.substring(0, metaStart);
+		String meta = line.substring(metaStart + 1, metaEnd);
+		String payload = line.substring(metaEnd + 1);
+
+		int computer;
+		try {
+			computer = Integer.parseInt(meta);
+		} catch (NumberFormatException e) {
+			log.warn("Ignoring TRoR input with invalid computer ID '{}'", meta);
+			return;
+		}
+
+		EmulatedComputer target;
+		BlockingDeque<InputPacket> queue;
+		synchronized (events) {
+			target = computers.get(computer);
+			queue = events.get(computer);
+		}
+
+		if (target == null || queue == null) {
+			log.debug("Ignoring TRoR input for unknown computer {}", computer);
+			return;
+		}
+
+		if (!queue.offer(new InputPacket(code, payload))) {
+			log.debug("Ignoring TRoR input for computer {}, as its queue is full", computer);
+			return;
+		}
+
+		target.wake();
+	}
+
+	/**
+	 * Wake every computer which is reading input from this provider, so they send their terminals to a new client.
+	 */
+	void wakeAll() {
+		List<EmulatedComputer> computers;
+		synchronized (events) {
+			computers = new ArrayList<>(this.computers.values());
+		}
+		for (EmulatedComputer computer : computers) computer.wake();
+	}
+
+	/**
+	 * Start reading input for a computer.
+	 *
+	 * @param computer The computer to read input for.
+	 * @return The queue input for this computer is added to.
+	 */
 	BlockingDeque<InputPacket> getQueue(EmulatedComputer computer) {
-		return getQueue(computer.getID());
+		synchronized (events) {
+			computers.put(computer.getID(), computer);
+			return events.computeIfAbsent(computer.getID(), k -> new LinkedBlockingDeque<>(MAX_QUEUED));
+		}
 	}
 
-	private BlockingDeque<InputPacket> getQueue(int id) {
+	/**
+	 * Stop reading input for a computer, dropping any which has not been handled yet.
+	 *
+	 * @param computer The computer which has been closed.
+	 */
+	void unregister(EmulatedComputer computer) {
 		synchronized (events) {
-			BlockingDeque<InputPacket> queue = events.get(id);
-			if (queue == null) events.put(id, queue = new LinkedBlockingDeque<>());
-			return queue;
+			// A new computer may have been opened with the same ID, in which case its queue should be kept.
+			if (computers.remove(computer.getID(), computer)) events.remove(computer.getID());
 		}
 	}
 
@@ -1,9 +1,7 @@
 package net.clgd.ccemux.rendering.tror;
 
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
@@ -16,28 +14,56 @@ import net.clgd.ccemux.api.emulation.EmulatedComputer;
 import net.clgd.ccemux.api.emulation.EmulatedPalette;
 import net.clgd.ccemux.api.emulation.EmulatedTerminal;
 import net.clgd.ccemux.api.rendering.Renderer;
+import net.clgd.ccemux.plugins.builtin.TRoRPlugin.TRoRConfig;
 
 public class TRoRRenderer implements Renderer, EmulatedTerminal.Listener, EmulatedPalette.ColorChangeListener {
 	private final EmulatedComputer computer;
 
 	private final List<Renderer.Listener> listeners = new ArrayList<>();
 
+	private final InputProvider input;
 	private final BlockingDeque<InputProvider.InputPacket> events;
 
-	private final Writer output;
-	private boolean isVisible = true;
+	private final TRoRWriter output;
+	private final boolean buffered;
+	private volatile boolean isVisible = true;
 
-	public TRoRRenderer(EmulatedComputer computer) {
-		this.computer = computer;
+	/**
+	 * What the remote terminal looks like, when terminal operations are coalesced rather than forwarded. This is only
+	 * used on the tick thread, or {@code null} if operations are forwarded as they happen.
+	 */
+	private final TerminalShadow shadow;
+	private volatile boolean resync;
 
-		output = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+	/**
+	 * The server this computer is served from, or {@code null} if it uses stdin and stdout.
+	 */
+	private final TRoRServer server;
 
-		computer.terminal.addListener(this);
-		computer.terminal.getPalette().addListener(this);
+	public TRoRRenderer(EmulatedComputer computer, TRoRConfig config) {
+		this.computer = computer;
 
-		events = InputProvider.getStdinProvider().getQueue(computer);
+		// Clients may join at any point, so the server only sends changes which can be replayed over a full resync.
+		server = TRoRServer.get(config);
+		shadow = server != null || config.coalesceOutput.get() ? new TerminalShadow() : null;
+		buffered = shadow != null || config.bufferOutput.get();
+
+		if (server != null) {
+			server.unsync(computer.getID());
+			output = new TRoRWriter(server.getOutput(computer.getID()), config.bufferSize.get());
+			input = server.getInput();
+		} else {
+			output = new TRoRWriter(System.out, buffered ? config.bufferSize.get() : 0);
+			input = InputProvider.getStdinProvider();
+		}
+		events = input.getQueue(computer);
 
-		resize(computer.terminal.getWidth(), computer.terminal.getHeight());
+		if (shadow == null) {
+			computer.terminal.addListener(this);
+			computer.terminal.getPalette().addListener(this);
+
+			resize(computer.terminal.getWidth(), computer.terminal.getHeight());
+		}
 	}
 
 	@Override
@@ -60,7 +86,10 @@ public class TRoRRenderer implements Renderer, EmulatedTerminal.Listener, Emulat
 		if (isVisible != visible) {
 			isVisible = visible;
 
-			if (visible) {
+			if (visible && shadow != null) {
+				// Send the whole terminal on the next tick.
+				resync = true;
+			} else if (visible) {
 				// Broadcast the entire terminal state to ensure the remote is
 				// in sync.
 				EmulatedTerminal terminal = computer.terminal;
@@ -68,19 +97,26 @@ public class TRoRRenderer implements Renderer, EmulatedTerminal.Listener, Emulat
 				setCursorBlink(terminal.getCursorBlink());
 				resize(terminal.getWidth(), terminal.getHeight());
 
-				StringBuilder builder = new StringBuilder();
-				for (int y = 0; y < terminal.getHeight(); y++) {
-					if (y > 0) {
-						builder.append(':');
-					}
+				int width = terminal.getWidth(), height = terminal.getHeight();
+				int[] row = new int[width];
+				synchronized (terminal) {
+					synchronized (output) {
+						begin("TV");
+						for (int y = 0; y < height; y++) {
+							if (y > 0) {
+								output.append(':');
+							}
 
-					builder.append(terminal.getTextColourLine(y));
-					builder.append(',');
-					builder.append(terminal.getBackgroundColourLine(y));
-					builder.append(',');
-					builder.append(terminal.getLine(y));
+							terminal.copyRow(y, row, 0);
+							for (int cell : row) output.append(Utils.intToBase16(EmulatedTerminal.getCellForeground(cell)));
+							output.append(',');
+							for (int cell : row) output.append(Utils.intToBase16(EmulatedTerminal.getCellBackground(cell)));
+							output.append(',');
+							for (int cell : row) output.append(EmulatedTerminal.getCellChar(cell));
+						}
+						end();
+					}
 				}
-				sendLine("TV", builder.toString());
 
 				EmulatedPalette palette = terminal.getPalette();
 				for (int i = 0; i < 16; i++) {
@@ -94,6 +130,9 @@ public class TRoRRenderer implements Renderer, EmulatedTerminal.Listener, Emulat
 	@Override
 	public void dispose() {
 		sendLine("SC", "");
+		flush();
+		if (server != null) server.unsync(computer.getID());
+		input.unregister(computer);
 	}
 
 	@Override
@@ -203,34 +242,91 @@ public class TRoRRenderer implements Renderer, EmulatedTerminal.Listener, Emulat
 					break;
 			}
 		}
-	}
 
-	private void sendLine(String mode, String line) {
-		if (!isVisible) {
-			return;
+		if (shadow != null && isVisible) {
+			if (resync) {
+				resync = false;
+				shadow.reset();
+			}
+
+			synchronized (output) {
+				try {
+					if (server != null) server.sync(computer.getID(), this::writeState);
+					shadow.sendChanges(computer.terminal, computer.getID(), output);
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+			}
 		}
 
+		if (buffered) flush();
+	}
+
+	/**
+	 * Write the whole state of the terminal, for a client which has just connected to the {@link #server}.
+	 */
+	private void writeState(OutputStream stream) throws IOException {
+		TRoRWriter writer = new TRoRWriter(stream, 0);
+		new TerminalShadow().sendChanges(computer.terminal, computer.getID(), writer);
+		writer.flush();
+	}
+
+	private void flush() {
 		try {
-			output.write(mode);
-			output.write(':');
-			output.write(Integer.toString(computer.getID()));
-			output.write(';');
-			output.write(line);
-			output.write('\n');
 			output.flush();
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
 	}
 
+	/**
+	 * Start a message. The caller must hold the lock on {@link #output}, and finish the message with {@link #end()}.
+	 */
+	private TRoRWriter begin(String mode) {
+		return output.begin(mode, computer.getID());
+	}
+
+	private void end() {
+		try {
+			output.end();
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private void sendLine(String mode, String line) {
+		if (!isVisible) {
+			return;
+		}
+
+		synchronized (output) {
+			begin(mode).append(line);
+			end();
+		}
+	}
+
 	@Override
 	public void write(@Nonnull String text) {
-		sendLine("TW", text.replace('\r', ' ').replace('\n', ' '));
+		if (!isVisible) {
+			return;
+		}
+
+		synchronized (output) {
+			begin("TW").appendLine(text);
+			end();
+		}
 	}
 
 	@Override
 	public void setCursorPos(int x, int y) {
-		sendLine("TC", x + "," + y);
+		if (!isVisible) {
+			return;
+		}
+
+		synchronized (output) {
+			begin("TC").append(x).append(',').append(y);
+			end();
+		}
 	}
 
 	@Override
@@ -255,26 +351,59 @@ public class TRoRRenderer implements Renderer, EmulatedTerminal.Listener, Emulat
 
 	@Override
 	public void setTextColour(int colour) {
-		sendLine("TF", Character.toString(Utils.intToBase16(colour)));
+		sendColour("TF", colour);
 	}
 
 	@Override
 	public void setBackgroundColour(int colour) {
-		sendLine("TK", Character.toString(Utils.intToBase16(colour)));
+		sendColour("TK", colour);
+	}
+
+	private void sendColour(String mode, int colour) {
+		if (!isVisible) {
+			return;
+		}
+
+		synchronized (output) {
+			begin(mode).append(Utils.intToBase16(colour));
+			end();
+		}
 	}
 
 	@Override
 	public void setColour(int index, double r, double g, double b) {
-		sendLine("TM", String.format("%c,%.4f,%.4f,%.4f", Utils.intToBase16(index), r, g, b));
+		if (!isVisible) {
+			return;
+		}
+
+		synchronized (output) {
+			begin("TM").append(Utils.intToBase16(index)).append(',')
+				.appendDecimal(r).append(',').appendDecimal(g).append(',').appendDecimal(b);
+			end();
+		}
 	}
 
 	@Override
 	public void resize(int width, int height) {
-		sendLine("TR", width + "," + height);
+		if (!isVisible) {
+			return;
+		}
+
+		synchronized (output) {
+			begin("TR").append(width).append(',').append(height);
+			end();
+		}
 	}
 
 	@Override
 	public void blit(@Nonnull String text, @Nonnull String textColour, @Nonnull String backgroundColour) {
-		sendLine("TY", textColour + "," + backgroundColour + "," + text.replace('\r', ' ').replace('\n', ' '));
+		if (!isVisible) {
+			return;
+		}
+
+		synchronized (output) {
+			begin("TY").append(textColour).append(',').append(backgroundColour).append(',').appendLine(text);
+			end();
+		}
 	}
 }
@@ -0,0 +1,334 @@
+package net.clgd.ccemux.rendering.tror;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import net.clgd.ccemux.plugins.builtin.TRoRPlugin.TRoRConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves TRoR over a loopback TCP port or a Unix domain socket, so any number of clients can watch and control the
+ * emulator at once.
+ * <p>
+ * Every client is handled on a single thread using non-blocking IO. Each computer's messages are copied once into a
+ * shared buffer, which is then queued for every client. When a client connects, it is sent the whole state of each
+ * computer before any changes to it. Lines sent by any client are parsed just like those on stdin, and queued for the
+ * computer they name.
+ */
+final class TRoRServer {
+	private static final Logger log = LoggerFactory.getLogger(TRoRServer.class);
+
+	/**
+	 * How many bytes may be waiting to be sent to a client before it is disconnected for not keeping up.
+	 */
+	private static final int MAX_QUEUED = 4 * 1024 * 1024;
+
+	/**
+	 * The longest line a client may send.
+	 */
+	private static final int MAX_LINE = 1024 * 1024;
+
+	private static TRoRServer instance;
+
+	/**
+	 * Get the server, starting it if needed.
+	 *
+	 * @param config The TRoR config, read when the server is first started.
+	 * @return The server, or {@code null} if neither a port nor a socket path is configured.
+	 * @throws UncheckedIOException If the server could not be started.
+	 */
+	@Nullable
+	static synchronized TRoRServer get(@Nonnull TRoRConfig config) {
+		if (instance != null) return instance;
+
+		String path = config.serverSocket.get();
+		int port = config.serverPort.get();
+		if (path.isEmpty() && port <= 0) return null;
+
+		try {
+			ServerSocketChannel channel;
+			SocketAddress address;
+			if (!path.isEmpty()) {
+				Path socket = Paths.get(path);
+				// Remove a socket left behind by a previous run, but never a real file.
+				if (Files.exists(socket) && !Files.isRegularFile(socket) && !Files.isDirectory(socket)) Files.delete(socket);
+
+				channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+				address = UnixDomainSocketAddress.of(socket);
+			} else {
+				channel = ServerSocketChannel.open();
+				address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+			}
+
+			channel.bind(address);
+			instance = new TRoRServer(channel);
+			log.info("TRoR server listening on {}", address);
+			return instance;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot start TRoR server", e);
+		}
+	}
+
+	private final ServerSocketChannel server;
+	private final Selector selector;
+	private final InputProvider input = new InputProvider();
+	private final List<Client> clients = new CopyOnWriteArrayList<>();
+
+	private TRoRServer(ServerSocketChannel server) throws IOException {
+		this.server = server;
+		this.selector = Selector.open();
+
+		server.configureBlocking(false);
+		server.register(selector, SelectionKey.OP_ACCEPT);
+
+		Thread thread = new Thread(this::run);
+		thread.setName("TRoR server");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * The input sent by every client.
+	 */
+	InputProvider getInput() {
+		return input;
+	}
+
+	/**
+	 * Get a stream which sends a computer's messages to every client which has been sent that computer's state.
+	 *
+	 * @param id The computer's ID.
+	 * @return The stream. Each write is queued as a whole, so should only contain complete messages.
+	 */
+	OutputStream getOutput(int id) {
+		return new OutputStream() {
+			@Override
+			public void write(int b) {
+				write(new byte[]{ (byte) b }, 0, 1);
+			}
+
+			@Override
+			public void write(@Nonnull byte[] bytes, int offset, int length) {
+				broadcast(id, bytes, offset, length);
+			}
+		};
+	}
+
+	/**
+	 * Send a computer's whole state to any clients which have connected since this was last called for it. This should
+	 * be called before any changes are written to {@link #getOutput(int)}.
+	 *
+	 * @param id    The computer's ID.
+	 * @param state Writes the computer's whole state to a stream.
+	 * @throws IOException If the state could not be written.
+	 */
+	void sync(int id, StateWriter state) throws IOException {
+		ByteBuffer data = null;
+		for (Client client : clients) {
+			if (!client.synced.add(id)) continue;
+
+			if (data == null) {
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				state.write(bytes);
+				data = ByteBuffer.wrap(bytes.toByteArray()).asReadOnlyBuffer();
+			}
+			client.queue(data);
+		}
+
+		if (data != null) selector.wakeup();
+	}
+
+	/**
+	 * Stop sending a computer's changes to clients, as it has been closed. If a computer with this ID is opened again,
+	 * its state will be sent to every client.
+	 *
+	 * @param id The computer's ID.
+	 */
+	void unsync(int id) {
+		for (Client client : clients) client.synced.remove(id);
+	}
+
+	@FunctionalInterface
+	interface StateWriter {
+		void write(OutputStream output) throws IOException;
+	}
+
+	private void broadcast(int id, byte[] bytes, int offset, int length) {
+		ByteBuffer data = null;
+		for (Client client : clients) {
+			if (!client.synced.contains(id)) continue;
+
+			if (data == null) data = ByteBuffer.wrap(Arrays.copyOfRange(bytes, offset, offset + length)).asReadOnlyBuffer();
+			client.queue(data);
+		}
+
+		if (data != null) selector.wakeup();
+	}
+
+	private void run() {
+		while (true) {
+			try {
+				selector.select();
+
+				for (Client client : clients) {
+					if (client.overflowed) {
+						log.warn("Disconnecting TRoR client {}, as it is not keeping up", client.name);
+						close(client);
+					} else if (!client.pending.isEmpty() && client.key.isValid()) {
+						client.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+					}
+				}
+
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					if (!key.isValid()) continue;
+
+					if (key.isAcceptable()) {
+						accept();
+						continue;
+					}
+
+					Client client = (Client) key.attachment();
+					try {
+						if (key.isReadable()) client.read();
+						if (key.isValid() && key.isWritable()) client.write();
+					} catch (IOException e) {
+						log.debug("Error communicating with TRoR client {}", client.name, e);
+						close(client);
+					}
+				}
+			} catch (IOException e) {
+				log.error("Error in TRoR server", e);
+			}
+		}
+	}
+
+	private void accept() throws IOException {
+		SocketChannel channel = server.accept();
+		if (channel == null) return;
+
+		channel.configureBlocking(false);
+		Client client = new Client(channel);
+		client.key = channel.register(selector, SelectionKey.OP_READ, client);
+		clients.add(client);
+		log.info("TRoR client {} connected", client.name);
+
+		// Computers send their state on their next tick, so make sure sleeping ones tick again.
+		input.wakeAll();
+	}
+
+	private void close(Client client) {
+		clients.remove(client);
+		client.key.cancel();
+		try {
+			client.channel.close();
+		} catch (IOException e) {
+			log.debug("Error closing TRoR client {}", client.name, e);
+		}
+		log.info("TRoR client {} disconnected", client.name);
+	}
+
+	private final class Client {
+		final SocketChannel channel;
+		final String name;
+		SelectionKey key;
+
+		/**
+		 * The computers whose state this client has been sent, and so which it should receive changes for.
+		 */
+		final Set<Integer> synced = ConcurrentHashMap.newKeySet();
+
+		final Queue<ByteBuffer> pending = new ConcurrentLinkedQueue<>();
+		final AtomicInteger queued = new AtomicInteger();
+		volatile boolean overflowed;
+
+		/**
+		 * The state below is only used on the server thread.
+		 */
+		private final ByteBuffer readBuffer = ByteBuffer.allocate(4096);
+		private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+		Client(SocketChannel channel) throws IOException {
+			this.channel = channel;
+			SocketAddress remote = channel.getRemoteAddress();
+			this.name = remote == null ? "#" + channel.hashCode() : remote.toString();
+		}
+
+		void queue(ByteBuffer data) {
+			if (overflowed) return;
+			if (queued.addAndGet(data.remaining()) > MAX_QUEUED) {
+				overflowed = true;
+				return;
+			}
+
+			pending.add(data.duplicate());
+		}
+
+		void read() throws IOException {
+			readBuffer.clear();
+			int read = channel.read(readBuffer);
+			if (read < 0) {
+				close(this);
+				return;
+			}
+
+			byte[] bytes = readBuffer.array();
+			for (int i = 0; i < read; i++) {
+				byte b = bytes[i];
+				if (b == '\n') {
+					String text = line.toString(StandardCharsets.UTF_8);
+					line.reset();
+					input.accept(text.endsWith("\r") ? text.substring(0, text.length() - 1) : text);
+				} else if (line.size() >= MAX_LINE) {
+					throw new IOException("Line too long");
+				} else {
+					line.write(b);
+				}
+			}
+		}
+
+		void write() throws IOException {
+			ByteBuffer data;
+			while ((data = pending.peek()) != null) {
+				channel.write(data);
+				if (data.hasRemaining()) return;
+
+				pending.poll();
+				queued.addAndGet(-data.limit());
+			}
+
+			key.interestOps(SelectionKey.OP_READ);
+		}
+	}
+}
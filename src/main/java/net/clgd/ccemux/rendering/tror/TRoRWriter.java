@@ -0,0 +1,171 @@
+package net.clgd.ccemux.rendering.tror;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Encodes TRoR messages into a reusable buffer, which is then written to the output in one go.
+ * <p>
+ * Messages are encoded straight to UTF-8 bytes, without going through a {@link java.io.Writer} or building
+ * intermediate strings. Each message is built with {@link #begin(String, int)}, any number of {@code append} calls and
+ * then {@link #end()}. Callers should hold this writer's lock while doing so, so messages from different threads are
+ * not interleaved.
+ */
+final class TRoRWriter {
+	private final OutputStream output;
+
+	/**
+	 * The size the buffer may grow to before it is written out, or 0 to write out every message as soon as it ends.
+	 */
+	private final int flushThreshold;
+
+	private byte[] buffer;
+	private int length;
+
+	/**
+	 * @param output         The stream to write messages to.
+	 * @param flushThreshold How many bytes to buffer before writing them to {@code output}. If this is 0, every message
+	 *                       is written as soon as it is complete. Otherwise, messages are written when the buffer fills
+	 *                       up or {@link #flush()} is called.
+	 */
+	TRoRWriter(@Nonnull OutputStream output, int flushThreshold) {
+		this.output = output;
+		this.flushThreshold = Math.max(0, flushThreshold);
+		this.buffer = new byte[Math.max(256, this.flushThreshold + 256)];
+	}
+
+	/**
+	 * Start a new message.
+	 *
+	 * @param code     The message's two letter code.
+	 * @param computer The ID of the computer this message is about.
+	 * @return This writer, for chaining.
+	 */
+	TRoRWriter begin(@Nonnull String code, int computer) {
+		append(code).append(':').append(computer).append(';');
+		return this;
+	}
+
+	/**
+	 * Finish the current message, writing it out if the buffer is full or this writer does not buffer.
+	 *
+	 * @throws IOException If the buffer could not be written.
+	 */
+	void end() throws IOException {
+		append('\n');
+		if (length >= flushThreshold) flush();
+	}
+
+	/**
+	 * Write out any buffered messages.
+	 *
+	 * @throws IOException If the buffer could not be written.
+	 */
+	synchronized void flush() throws IOException {
+		if (length == 0) return;
+
+		try {
+			output.write(buffer, 0, length);
+			output.flush();
+		} finally {
+			length = 0;
+		}
+	}
+
+	TRoRWriter append(char c) {
+		if (c < 0x80) {
+			ensure(1);
+			buffer[length++] = (byte) c;
+		} else if (c < 0x800) {
+			ensure(2);
+			buffer[length++] = (byte) (0xC0 | c >> 6);
+			buffer[length++] = (byte) (0x80 | c & 0x3F);
+		} else {
+			// Terminals only hold characters up to 0xFF, so surrogate pairs are not worth handling.
+			ensure(3);
+			buffer[length++] = (byte) (0xE0 | c >> 12);
+			buffer[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+			buffer[length++] = (byte) (0x80 | c & 0x3F);
+		}
+		return this;
+	}
+
+	TRoRWriter append(@Nonnull CharSequence text) {
+		for (int i = 0, n = text.length(); i < n; i++) append(text.charAt(i));
+		return this;
+	}
+
+	/**
+	 * Append a string, replacing any line breaks with spaces so they don't end the message early.
+	 */
+	TRoRWriter appendLine(@Nonnull CharSequence text) {
+		for (int i = 0, n = text.length(); i < n; i++) {
+			char c = text.charAt(i);
+			append(c == '\r' || c == '\n' ? ' ' : c);
+		}
+		return this;
+	}
+
+	TRoRWriter append(int value) {
+		if (value < 0) {
+			if (value == Integer.MIN_VALUE) return append(Integer.toString(value));
+			append('-');
+			value = -value;
+		}
+
+		int digits = 1;
+		for (int n = value; n >= 10; n /= 10) digits++;
+
+		ensure(digits);
+		for (int i = length + digits - 1; i >= length; i--) {
+			buffer[i] = (byte) ('0' + value % 10);
+			value /= 10;
+		}
+		length += digits;
+		return this;
+	}
+
+	/**
+	 * Append a number with exactly four decimal places, as {@code String.format("%.4f")} would in the root locale.
+	 * <p>
+	 * {@code String.format} rounds half up from the shortest decimal which represents the number, rather than from its
+	 * exact binary value. The two only disagree when the number is very close to halfway between two results, so those
+	 * fall back to {@link BigDecimal}, which rounds the same way. So do numbers too large to scale into a {@code long}.
+	 */
+	TRoRWriter appendDecimal(double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value)) return append(Double.toString(value));
+
+		if (Double.doubleToRawLongBits(value) < 0) append('-');
+		double abs = Math.abs(value), scaledValue = abs * 10000;
+		if (scaledValue >= 0x1p52 || Math.abs(scaledValue - Math.floor(scaledValue) - 0.5) <= Math.ulp(scaledValue) * 4) {
+			return append(BigDecimal.valueOf(abs).setScale(4, RoundingMode.HALF_UP).toPlainString());
+		}
+
+		long scaled = Math.round(scaledValue);
+		long whole = scaled / 10000;
+		if (whole <= Integer.MAX_VALUE) {
+			append((int) whole);
+		} else {
+			append(Long.toString(whole));
+		}
+		append('.');
+
+		int fraction = (int) (scaled % 10000);
+		ensure(4);
+		for (int i = length + 3; i >= length; i--) {
+			buffer[i] = (byte) ('0' + fraction % 10);
+			fraction /= 10;
+		}
+		length += 4;
+		return this;
+	}
+
+	private void ensure(int extra) {
+		if (length + extra > buffer.length) buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+	}
+}
@@ -0,0 +1,146 @@
+package net.clgd.ccemux.rendering.tror;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import javax.annotation.Nonnull;
+
+import net.clgd.ccemux.api.Utils;
+import net.clgd.ccemux.api.emulation.EmulatedPalette;
+import net.clgd.ccemux.api.emulation.EmulatedTerminal;
+
+/**
+ * A copy of what a TRoR client's terminal looks like, used to coalesce a tick's worth of terminal operations into the
+ * smallest set of messages.
+ * <p>
+ * Rather than forwarding every operation, {@link #sendChanges(EmulatedTerminal, int, TRoRWriter)} compares the terminal
+ * against this shadow once per tick. Each row which differs is sent as a single {@code TY} blit, followed by the final
+ * cursor, colours and palette. Writes which were later overwritten, or repeated cursor and colour changes, are never
+ * sent at all.
+ */
+final class TerminalShadow {
+	private int width = -1, height = -1;
+	private int[] cells = new int[0];
+	private int[] row = new int[0];
+
+	private long version = -1;
+	private final BitSet changedRows = new BitSet();
+
+	private int cursorX, cursorY;
+	private int textColour, backgroundColour;
+	private int cursorBlink;
+	private final double[] palette = new double[16 * 3];
+
+	TerminalShadow() {
+		reset();
+	}
+
+	/**
+	 * Forget what the client has been sent, so the next call to {@link #sendChanges(EmulatedTerminal, int, TRoRWriter)}
+	 * sends the whole terminal.
+	 */
+	void reset() {
+		width = height = -1;
+		version = -1;
+		cursorX = cursorY = Integer.MIN_VALUE;
+		textColour = backgroundColour = -1;
+		cursorBlink = -1;
+		Arrays.fill(palette, Double.NaN);
+	}
+
+	/**
+	 * Send everything which has changed since the last call, and update this shadow to match. The caller must hold the
+	 * lock on {@code output}.
+	 *
+	 * @param terminal The terminal to send.
+	 * @param id       The ID of the terminal's computer.
+	 * @param output   The writer to send messages with.
+	 * @throws IOException If the messages could not be written.
+	 */
+	void sendChanges(@Nonnull EmulatedTerminal terminal, int id, @Nonnull TRoRWriter output) throws IOException {
+		synchronized (terminal) {
+			int width = terminal.getWidth(), height = terminal.getHeight();
+			if (width != this.width || height != this.height) {
+				this.width = width;
+				this.height = height;
+				cells = new int[width * height];
+				Arrays.fill(cells, -1);
+				row = new int[width];
+				version = -1;
+
+				output.begin("TR", id).append(width).append(',').append(height);
+				output.end();
+			}
+
+			// Send each row which differs from what the client has, moving the client's cursor to the start of it.
+			boolean movedCursor = false;
+			version = terminal.getChangedRows(version, changedRows);
+			for (int y = changedRows.nextSetBit(0); y >= 0 && y < height; y = changedRows.nextSetBit(y + 1)) {
+				terminal.copyRow(y, row, 0);
+				int offset = y * width;
+				if (Arrays.equals(row, 0, width, cells, offset, offset + width)) continue;
+				System.arraycopy(row, 0, cells, offset, width);
+
+				output.begin("TC", id).append(0).append(',').append(y);
+				output.end();
+
+				output.begin("TY", id);
+				for (int cell : row) output.append(Utils.intToBase16(EmulatedTerminal.getCellForeground(cell)));
+				output.append(',');
+				for (int cell : row) output.append(Utils.intToBase16(EmulatedTerminal.getCellBackground(cell)));
+				output.append(',');
+				for (int cell : row) {
+					char c = EmulatedTerminal.getCellChar(cell);
+					output.append(c == '\r' || c == '\n' ? ' ' : c);
+				}
+				output.end();
+
+				movedCursor = true;
+			}
+
+			int x = terminal.getCursorX(), y = terminal.getCursorY();
+			if (movedCursor || x != cursorX || y != cursorY) {
+				cursorX = x;
+				cursorY = y;
+				output.begin("TC", id).append(x).append(',').append(y);
+				output.end();
+			}
+
+			int blink = terminal.getCursorBlink() ? 1 : 0;
+			if (blink != cursorBlink) {
+				cursorBlink = blink;
+				output.begin("TB", id).append(blink == 1 ? "true" : "false");
+				output.end();
+			}
+
+			int text = terminal.getTextColour();
+			if (text != textColour) {
+				textColour = text;
+				output.begin("TF", id).append(Utils.intToBase16(text));
+				output.end();
+			}
+
+			int background = terminal.getBackgroundColour();
+			if (background != backgroundColour) {
+				backgroundColour = background;
+				output.begin("TK", id).append(Utils.intToBase16(background));
+				output.end();
+			}
+
+			EmulatedPalette palette = terminal.getPalette();
+			for (int i = 0; i < 16; i++) {
+				double[] colour = palette.getColour(i);
+				int offset = i * 3;
+				if (colour[0] == this.palette[offset] && colour[1] == this.palette[offset + 1] && colour[2] == this.palette[offset + 2]) {
+					continue;
+				}
+
+				System.arraycopy(colour, 0, this.palette, offset, 3);
+				output.begin("TM", id).append(Utils.intToBase16(i)).append(',')
+					.appendDecimal(colour[0]).append(',').appendDecimal(colour[1]).append(',').appendDecimal(colour[2]);
+				output.end();
+			}
+		}
+	}
+}
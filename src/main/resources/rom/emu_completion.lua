@@ -15,9 +15,12 @@ local function completeMultipleChoice(text, options, addSpaces)
     return tResults
 end
 
-local commands = { "close", "open", "data", "config" }
+local commands = { "close", "open", "data", "config", "record" }
+local recordCommands = { "start", "stop" }
 shell.setCompletionFunction("rom/programs/emu.lua", function(shell, index, text, previous)
     if index == 1 then
         return completeMultipleChoice(text, commands, true)
+    elseif index == 2 and previous[2] == "record" then
+        return completeMultipleChoice(text, recordCommands, false)
     end
 end)
@@ -7,6 +7,7 @@ if ccemux then
         print("emu open [id] - open another computer")
         print("emu data [id] - opens the data folder")
         print("emu config - opens the config editor")
+        print("emu record [start|stop] - records the terminal")
         print("Run 'help emu' for additional information")
     end
 
@@ -38,6 +39,27 @@ if ccemux then
             else
                 print(err)
             end
+        elseif args[1] == "record" then
+            local action = args[2]
+            if action == nil then action = ccemux.isRecording() and "stop" or "start" end
+
+            if action == "start" then
+                local file, err = ccemux.startRecording()
+                if file then
+                    print("Recording to " .. file)
+                else
+                    printError(err)
+                end
+            elseif action == "stop" then
+                local file = ccemux.stopRecording()
+                if file then
+                    print("Saved recording " .. file)
+                else
+                    print("Not recording")
+                end
+            else
+                printError("Expected start or stop")
+            end
         else
             printError("Unrecognized subcommand: " .. args[1])
             help()
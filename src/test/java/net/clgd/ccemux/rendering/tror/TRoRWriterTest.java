@@ -0,0 +1,75 @@
+package net.clgd.ccemux.rendering.tror;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TRoRWriterTest {
+	private interface Append {
+		void accept(TRoRWriter writer);
+	}
+
+	private static byte[] writeBytes(Append append) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		TRoRWriter writer = new TRoRWriter(output, 0);
+		append.accept(writer);
+		writer.flush();
+		return output.toByteArray();
+	}
+
+	private static String write(Append append) throws IOException {
+		return new String(writeBytes(append), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testInts() throws IOException {
+		int[] values = { 0, 1, 9, 10, 99, 100, -1, -9, -10, 123456789, Integer.MAX_VALUE, -Integer.MAX_VALUE, Integer.MIN_VALUE };
+		for (int value : values) assertEquals(Integer.toString(value), write(w -> w.append(value)));
+	}
+
+	@Test
+	public void testDecimals() throws IOException {
+		// Halfway cases, which String.format rounds up from the shortest decimal rather than the exact binary value.
+		double[] values = {
+			0, -0.0, 1, -1, 0.5, 0.3, 0.7, 0.12345, 0.00005, -0.00004, -0.00005, 0.00015, 0.04665, -0.63455, 0.99995,
+			1.00005, 1e10, 1e300, -1e300, Double.MIN_VALUE, Double.MAX_VALUE, Double.NaN, Double.POSITIVE_INFINITY,
+			Double.NEGATIVE_INFINITY,
+		};
+		for (double value : values) assertDecimal(value);
+
+		// Palette colours are the usual input, so check plenty of those as well.
+		Random random = new Random(0);
+		for (int i = 0; i < 10000; i++) assertDecimal(random.nextInt(200001) / 200000.0);
+		for (int i = 0; i < 10000; i++) assertDecimal(random.nextDouble());
+	}
+
+	private static void assertDecimal(double value) throws IOException {
+		assertEquals(String.format(Locale.ROOT, "%.4f", value), write(w -> w.appendDecimal(value)), () -> "Formatting " + value);
+	}
+
+	@Test
+	public void testChars() throws IOException {
+		// Each boundary between UTF-8's one, two and three byte encodings.
+		String text = "Hello, \u007f\u0080\u00a7\u00ff\u07ff\u0800\u20ac\uffff!";
+		assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), writeBytes(w -> w.append(text)));
+	}
+
+	@Test
+	public void testMessages() throws IOException {
+		String text = write(w -> {
+			try {
+				w.begin("TW", 3).appendLine("a\r\nb").end();
+				w.begin("TC", -2).append(-5).append(',').append(7).end();
+			} catch (IOException e) {
+				throw new AssertionError(e);
+			}
+		});
+		assertEquals("TW:3;a  b\nTC:-2;-5,7\n", text);
+	}
+}
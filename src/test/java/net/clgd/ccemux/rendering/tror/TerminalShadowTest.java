@@ -0,0 +1,86 @@
+package net.clgd.ccemux.rendering.tror;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import net.clgd.ccemux.api.emulation.EmulatedTerminal;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TerminalShadowTest {
+	private static final int ID = 1;
+
+	private static List<String> send(TerminalShadow shadow, EmulatedTerminal terminal) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		TRoRWriter writer = new TRoRWriter(output, 0);
+		shadow.sendChanges(terminal, ID, writer);
+		writer.flush();
+
+		String text = output.toString(StandardCharsets.UTF_8);
+		return text.isEmpty() ? List.of() : Arrays.asList(text.split("\n"));
+	}
+
+	@Test
+	public void testInitial() throws IOException {
+		EmulatedTerminal terminal = new EmulatedTerminal(4, 2);
+		List<String> messages = send(new TerminalShadow(), terminal);
+
+		assertEquals(List.of(
+			"TR:1;4,2",
+			"TC:1;0,0", "TY:1;0000,ffff,    ",
+			"TC:1;0,1", "TY:1;0000,ffff,    ",
+			"TC:1;0,0",
+			"TB:1;false",
+			"TF:1;0",
+			"TK:1;f"
+		), messages.subList(0, 9));
+		assertEquals(16, messages.subList(9, messages.size()).stream().filter(x -> x.startsWith("TM:1;")).count());
+		assertEquals(25, messages.size());
+	}
+
+	@Test
+	public void testCoalesce() throws IOException {
+		EmulatedTerminal terminal = new EmulatedTerminal(6, 3);
+		TerminalShadow shadow = new TerminalShadow();
+		send(shadow, terminal);
+
+		// Move the cursor and change colours several times, ending up with only the text colour changed.
+		terminal.setCursorPos(4, 0);
+		terminal.setCursorPos(5, 2);
+		terminal.setTextColour(3);
+		terminal.setBackgroundColour(6);
+
+		// Write to a row, then overwrite it.
+		terminal.setCursorPos(0, 1);
+		terminal.write("ab");
+		terminal.setTextColour(5);
+		terminal.setCursorPos(0, 1);
+		terminal.write("cd");
+
+		terminal.setBackgroundColour(15);
+		terminal.setCursorPos(2, 2);
+
+		assertEquals(List.of(
+			"TC:1;0,1", "TY:1;550000,66ffff,cd    ",
+			"TC:1;2,2",
+			"TF:1;5"
+		), send(shadow, terminal));
+
+		// Nothing has changed since, so nothing more should be sent.
+		assertEquals(List.of(), send(shadow, terminal));
+	}
+
+	@Test
+	public void testReset() throws IOException {
+		EmulatedTerminal terminal = new EmulatedTerminal(4, 2);
+		TerminalShadow shadow = new TerminalShadow();
+		List<String> first = send(shadow, terminal);
+
+		shadow.reset();
+		assertEquals(first, send(shadow, terminal));
+	}
+}
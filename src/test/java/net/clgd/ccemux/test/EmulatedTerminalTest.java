@@ -0,0 +1,58 @@
+package net.clgd.ccemux.test;
+
+import java.util.BitSet;
+
+import net.clgd.ccemux.api.emulation.EmulatedTerminal;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EmulatedTerminalTest {
+	@Test
+	public void testWrite() {
+		EmulatedTerminal terminal = new EmulatedTerminal(10, 3);
+		terminal.setTextColour(4);
+		terminal.setBackgroundColour(2);
+		terminal.setCursorPos(1, 1);
+		terminal.write("hi");
+
+		int cell = terminal.getCell(2, 1);
+		assertEquals('i', EmulatedTerminal.getCellChar(cell));
+		assertEquals(4, EmulatedTerminal.getCellForeground(cell));
+		assertEquals(2, EmulatedTerminal.getCellBackground(cell));
+
+		assertEquals(' ', EmulatedTerminal.getCellChar(terminal.getCell(0, 1)));
+	}
+
+	@Test
+	public void testChangedRows() {
+		EmulatedTerminal terminal = new EmulatedTerminal(10, 3);
+		BitSet rows = new BitSet();
+
+		long version = terminal.getChangedRows(-1, rows);
+		assertEquals(3, rows.cardinality());
+
+		terminal.setCursorPos(0, 2);
+		terminal.write("x");
+		version = terminal.getChangedRows(version, rows);
+		assertEquals(BitSet.valueOf(new long[]{ 0b100 }), rows);
+
+		terminal.getChangedRows(version, rows);
+		assertTrue(rows.isEmpty());
+	}
+
+	@Test
+	public void testScroll() {
+		EmulatedTerminal terminal = new EmulatedTerminal(10, 3);
+		terminal.setCursorPos(0, 2);
+		terminal.write("x");
+		terminal.scroll(1);
+
+		assertEquals('x', EmulatedTerminal.getCellChar(terminal.getCell(0, 1)));
+		assertEquals(' ', EmulatedTerminal.getCellChar(terminal.getCell(0, 2)));
+
+		int[] row = new int[10];
+		terminal.copyRow(1, row, 0);
+		assertEquals('x', EmulatedTerminal.getCellChar(row[0]));
+	}
+}
@@ -0,0 +1,50 @@
+package net.clgd.ccemux.test;
+
+import java.util.Map;
+
+import dan200.computercraft.core.metrics.Metrics;
+import net.clgd.ccemux.api.emulation.MetricSnapshot;
+import net.clgd.ccemux.emulation.MetricsAggregator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest {
+	@Test
+	public void testBucket() {
+		assertEquals(0, MetricSnapshot.bucket(0));
+		assertEquals(1, MetricSnapshot.bucket(1));
+		assertEquals(2, MetricSnapshot.bucket(2));
+		assertEquals(2, MetricSnapshot.bucket(3));
+		assertEquals(11, MetricSnapshot.bucket(1024));
+		assertEquals(MetricSnapshot.BUCKETS - 1, MetricSnapshot.bucket(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void testEvents() {
+		MetricsAggregator metrics = new MetricsAggregator();
+		for (int i = 1; i <= 100; i++) metrics.observe(Metrics.COMPUTER_TASKS, i);
+
+		MetricSnapshot snapshot = metrics.snapshot().get(Metrics.COMPUTER_TASKS.name());
+		assertNotNull(snapshot);
+		assertTrue(snapshot.isEvent());
+		assertEquals(100, snapshot.getCount());
+		assertEquals(5050, snapshot.getTotal());
+		assertEquals(100, snapshot.getMax());
+		assertEquals(63, snapshot.getPercentile(0.5));
+		assertEquals(100, snapshot.getPercentile(0.99));
+	}
+
+	@Test
+	public void testCounters() {
+		MetricsAggregator metrics = new MetricsAggregator();
+		metrics.observe(Metrics.HTTP_REQUESTS);
+		metrics.observe(Metrics.HTTP_REQUESTS);
+
+		Map<String, MetricSnapshot> snapshot = metrics.snapshot();
+		MetricSnapshot requests = snapshot.get(Metrics.HTTP_REQUESTS.name());
+		assertFalse(requests.isEvent());
+		assertEquals(2, requests.getCount());
+		assertEquals(4, requests.merge(requests).getCount());
+	}
+}
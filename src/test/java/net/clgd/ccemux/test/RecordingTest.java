@@ -0,0 +1,138 @@
+package net.clgd.ccemux.test;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+
+import net.clgd.ccemux.api.emulation.EmulatedTerminal;
+import net.clgd.ccemux.api.rendering.TerminalSnapshot;
+import net.clgd.ccemux.recording.RecordingExporter;
+import net.clgd.ccemux.recording.RecordingReader;
+import net.clgd.ccemux.recording.TerminalRecorder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecordingTest {
+	@Test
+	public void testRoundTrip(@TempDir Path dir) throws IOException {
+		File file = dir.resolve("test" + TerminalRecorder.EXTENSION).toFile();
+
+		EmulatedTerminal terminal = new EmulatedTerminal(10, 3);
+		try (TerminalRecorder recorder = new TerminalRecorder(terminal, 2, file, 100)) {
+			// Nothing has changed, so this frame is skipped.
+			recorder.record(101);
+
+			terminal.setTextColour(4);
+			terminal.setCursorPos(1, 2);
+			terminal.write("hi");
+			recorder.record(105);
+
+			terminal.getPalette().setColour(0, 1, 0, 0);
+			recorder.record(110);
+		}
+
+		try (RecordingReader reader = new RecordingReader(new FileInputStream(file))) {
+			assertEquals(2, reader.getTermScale());
+			TerminalSnapshot snapshot = reader.getTerminal();
+
+			assertEquals(0, reader.nextFrame());
+			assertTrue(reader.applyFrame());
+			assertEquals(10, snapshot.getWidth());
+			assertEquals(3, snapshot.getHeight());
+
+			assertEquals(5, reader.nextFrame());
+			assertTrue(reader.applyFrame());
+			assertEquals('i', snapshot.getChar(2, 2));
+			assertEquals(4, snapshot.getForeground(2, 2));
+			assertEquals(3, snapshot.getCursorX());
+
+			assertEquals(10, reader.nextFrame());
+			assertTrue(reader.applyFrame());
+			assertEquals(0xFF0000, snapshot.getPaletteColour(15));
+
+			assertEquals(-1, reader.nextFrame());
+		}
+	}
+
+	/**
+	 * Record a terminal which sits unchanged for 750 seconds, longer than a single GIF or APNG frame can last.
+	 */
+	private static File recordLongGap(Path dir) throws IOException {
+		File file = dir.resolve("gap" + TerminalRecorder.EXTENSION).toFile();
+
+		EmulatedTerminal terminal = new EmulatedTerminal(10, 3);
+		try (TerminalRecorder recorder = new TerminalRecorder(terminal, 1, file, 100)) {
+			terminal.write("hi");
+			recorder.record(101);
+
+			terminal.write("!");
+			recorder.record(101 + 15000);
+		}
+
+		return file;
+	}
+
+	/**
+	 * Frames at 0, 50ms and 750.05s, and the last frame shown for a second.
+	 */
+	private static final long LONG_GAP_MILLIS = 15001 * 50 + 1000;
+
+	@Test
+	public void testLongGapGif(@TempDir Path dir) throws IOException {
+		File output = dir.resolve("gap.gif").toFile();
+		RecordingExporter.export(recordLongGap(dir), output);
+
+		long centis = 0;
+		try (ImageInputStream stream = ImageIO.createImageInputStream(output)) {
+			ImageReader reader = ImageIO.getImageReadersByFormatName("gif").next();
+			reader.setInput(stream);
+			for (int i = 0; i < reader.getNumImages(true); i++) {
+				IIOMetadataNode root = (IIOMetadataNode) reader.getImageMetadata(i).getAsTree("javax_imageio_gif_image_1.0");
+				IIOMetadataNode control = (IIOMetadataNode) root.getElementsByTagName("GraphicControlExtension").item(0);
+				centis += Integer.parseInt(control.getAttribute("delayTime"));
+			}
+		}
+
+		assertEquals(LONG_GAP_MILLIS / 10, centis);
+	}
+
+	@Test
+	public void testLongGapApng(@TempDir Path dir) throws IOException {
+		File output = dir.resolve("gap.png").toFile();
+		RecordingExporter.export(recordLongGap(dir), output);
+
+		long millis = 0;
+		try (DataInputStream input = new DataInputStream(new FileInputStream(output))) {
+			input.skipBytes(8);
+			while (true) {
+				int length = input.readInt();
+				byte[] type = new byte[4];
+				input.readFully(type);
+				if (new String(type, StandardCharsets.US_ASCII).equals("IEND")) break;
+
+				byte[] data = new byte[length];
+				input.readFully(data);
+				input.skipBytes(4);
+
+				if (new String(type, StandardCharsets.US_ASCII).equals("fcTL")) {
+					int delay = (data[20] & 0xFF) << 8 | data[21] & 0xFF;
+					int denominator = (data[22] & 0xFF) << 8 | data[23] & 0xFF;
+					assertEquals(1000, denominator);
+					millis += delay;
+				}
+			}
+		}
+
+		assertEquals(LONG_GAP_MILLIS, millis);
+	}
+}
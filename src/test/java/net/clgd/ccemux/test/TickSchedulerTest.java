@@ -0,0 +1,153 @@
+package net.clgd.ccemux.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.clgd.ccemux.emulation.TickScheduler;
+import net.clgd.ccemux.emulation.TickScheduler.CatchUpPolicy;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TickSchedulerTest {
+	private static final long PERIOD = 50;
+
+	private long now = 0;
+	private final List<Double> ticks = new ArrayList<>();
+
+	private TickScheduler create(CatchUpPolicy policy, int maxCatchUp) {
+		return new TickScheduler(() -> now, PERIOD, policy, maxCatchUp);
+	}
+
+	private void tick(double dt) {
+		ticks.add(dt);
+	}
+
+	@Test
+	public void testOnSchedule() {
+		TickScheduler scheduler = create(CatchUpPolicy.BURST, 10);
+
+		assertEquals(1, scheduler.runDueTicks(this::tick));
+		assertEquals(0, scheduler.runDueTicks(this::tick));
+
+		now += PERIOD;
+		assertEquals(1, scheduler.runDueTicks(this::tick));
+
+		// A late tick should not push back the following one.
+		now += PERIOD + 20;
+		assertEquals(1, scheduler.runDueTicks(this::tick));
+		now += PERIOD - 20;
+		assertEquals(1, scheduler.runDueTicks(this::tick));
+
+		assertEquals(4, scheduler.getTicks());
+		assertEquals(0, scheduler.getSkipped());
+	}
+
+	@Test
+	public void testBurst() {
+		TickScheduler scheduler = create(CatchUpPolicy.BURST, 2);
+		scheduler.runDueTicks(this::tick);
+		ticks.clear();
+
+		now += PERIOD * 3;
+		assertEquals(3, scheduler.runDueTicks(this::tick));
+		assertEquals(List.of(PERIOD / 1e9, PERIOD / 1e9, PERIOD / 1e9), ticks);
+
+		// Beyond the catch-up limit, ticks are dropped.
+		now += PERIOD * 5;
+		assertEquals(3, scheduler.runDueTicks(this::tick));
+		assertEquals(2, scheduler.getSkipped());
+
+		now += PERIOD;
+		assertEquals(1, scheduler.runDueTicks(this::tick));
+	}
+
+	@Test
+	public void testSkip() {
+		TickScheduler scheduler = create(CatchUpPolicy.SKIP, 10);
+		scheduler.runDueTicks(this::tick);
+		ticks.clear();
+
+		now += PERIOD * 3;
+		assertEquals(1, scheduler.runDueTicks(this::tick));
+		assertEquals(List.of(PERIOD * 3 / 1e9), ticks);
+		assertEquals(2, scheduler.getSkipped());
+	}
+
+	@Test
+	public void testSlow() {
+		TickScheduler scheduler = create(CatchUpPolicy.SLOW, 10);
+		scheduler.runDueTicks(this::tick);
+
+		now += PERIOD * 3 + 10;
+		assertEquals(1, scheduler.runDueTicks(this::tick));
+
+		// The grid is restarted from the late tick.
+		now += PERIOD - 1;
+		assertEquals(0, scheduler.runDueTicks(this::tick));
+		now += 1;
+		assertEquals(1, scheduler.runDueTicks(this::tick));
+		assertEquals(0, scheduler.getSkipped());
+	}
+
+	@Test
+	public void testSpeed() {
+		TickScheduler scheduler = create(CatchUpPolicy.BURST, 10);
+		scheduler.setSpeed(2);
+		scheduler.runDueTicks(this::tick);
+
+		now += PERIOD / 2;
+		assertEquals(1, scheduler.runDueTicks(this::tick));
+
+		// Ticks still cover the same amount of emulated time.
+		assertEquals(List.of(PERIOD / 1e9, PERIOD / 1e9), ticks);
+	}
+
+	@Test
+	public void testSpeedChangedDuringTick() {
+		TickScheduler scheduler = create(CatchUpPolicy.BURST, 10);
+
+		// Ticks run outside the scheduler's lock, so a tick can wait on another thread which changes the speed.
+		scheduler.runDueTicks(dt -> {
+			Thread thread = new Thread(() -> scheduler.setSpeed(2));
+			thread.start();
+			try {
+				thread.join(5000);
+			} catch (InterruptedException e) {
+				throw new AssertionError(e);
+			}
+			assertFalse(thread.isAlive(), "setSpeed blocked while a tick was running");
+		});
+
+		assertEquals(PERIOD / 2, scheduler.getPeriod());
+		now += PERIOD / 2;
+		assertEquals(1, scheduler.runDueTicks(this::tick));
+	}
+
+	@Test
+	public void testUnbounded() {
+		TickScheduler scheduler = create(CatchUpPolicy.BURST, 10);
+		scheduler.setSpeed(0);
+		assertTrue(scheduler.isUnbounded());
+
+		for (int i = 0; i < 5; i++) assertEquals(1, scheduler.runDueTicks(dt -> now += PERIOD * 2));
+		assertEquals(5, scheduler.getTicks());
+		assertEquals(0, scheduler.getOverruns());
+		assertEquals(0, scheduler.getSkipped());
+	}
+
+	@Test
+	public void testOverruns() {
+		TickScheduler scheduler = create(CatchUpPolicy.BURST, 10);
+		scheduler.runDueTicks(dt -> now += PERIOD * 2);
+
+		assertEquals(1, scheduler.getOverruns());
+		assertEquals(PERIOD * 2, scheduler.getLastDuration());
+	}
+
+	@Test
+	public void testParsePolicy() {
+		assertEquals(CatchUpPolicy.SKIP, CatchUpPolicy.parse("Skip"));
+		assertEquals(CatchUpPolicy.BURST, CatchUpPolicy.parse("nonsense"));
+	}
+}
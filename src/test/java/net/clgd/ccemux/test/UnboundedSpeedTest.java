@@ -0,0 +1,85 @@
+package net.clgd.ccemux.test;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+
+import javax.annotation.Nonnull;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import dan200.computercraft.core.ComputerContext;
+import net.clgd.ccemux.api.emulation.EmulatedComputer;
+import net.clgd.ccemux.api.rendering.Renderer;
+import net.clgd.ccemux.emulation.CCEmuX;
+import net.clgd.ccemux.init.UserConfig;
+import net.clgd.ccemux.plugins.PluginManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UnboundedSpeedTest {
+	private static final class NullRenderer implements Renderer {
+		@Override
+		public boolean isVisible() {
+			return false;
+		}
+
+		@Override
+		public void setVisible(boolean visible) {}
+
+		@Override
+		public void dispose() {}
+
+		@Override
+		public void addListener(@Nonnull Listener l) {}
+
+		@Override
+		public void removeListener(@Nonnull Listener l) {}
+	}
+
+	private static final int TICKS = 200;
+
+	@Test
+	public void testInputToOffComputer(@TempDir Path dir) throws URISyntaxException, JMException {
+		UserConfig cfg = new UserConfig(dir, dir.resolve("assets"), dir.resolve("computers"));
+		File ccSource = new File(ComputerContext.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+		CCEmuX emu = new CCEmuX(cfg, (computer, config) -> new NullRenderer(), new PluginManager(cfg), ccSource, dir.resolve("session.json"));
+		emu.setSpeed(0);
+
+		// Stop the computer before it starts, then send it input which CC: Tweaked will drop.
+		EmulatedComputer computer = emu.createComputer(b -> {});
+		computer.shutdown();
+		computer.pressKey(30, false);
+
+		// When running as fast as possible, the emulator waits between ticks while any computer has queued events. The
+		// dropped input must not count as one, or every tick would wait.
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName bean = new ObjectName("net.clgd.ccemux:type=Computer,id=" + computer.getID());
+		int[] maxDepth = new int[1];
+		int[] ticks = new int[1];
+		computer.addListener(dt -> {
+			try {
+				maxDepth[0] = Math.max(maxDepth[0], (Integer) server.getAttribute(bean, "EventQueueDepth"));
+			} catch (JMException e) {
+				throw new AssertionError(e);
+			}
+
+			// Run a fixed number of ticks on this thread, rather than for a length of real time.
+			if (++ticks[0] == TICKS) emu.stop();
+		});
+
+		try {
+			emu.run();
+		} finally {
+			emu.removeComputer(computer);
+		}
+
+		assertFalse(computer.isOn());
+		assertEquals(TICKS, emu.getTicksSinceStart());
+		assertEquals(0, maxDepth[0]);
+	}
+}